@@ -0,0 +1,37 @@
+package bguspl.set.benchmarks;
+
+import bguspl.set.Config;
+
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Helpers shared by the benchmarks.
+ */
+class Benchmarks {
+
+    /**
+     * The log of the benchmarked games (warnings and above only, so it does not distort the measurements).
+     */
+    static final Logger logger = Logger.getLogger("SetBenchmarkLogger");
+
+    static {
+        logger.setLevel(Level.WARNING);
+    }
+
+    private Benchmarks() {
+    }
+
+    /**
+     * @param keysAndValues - configuration properties overriding the defaults, as key, value, key, value...
+     * @return              - the configuration (with a fixed random seed, so all runs deal the same cards).
+     */
+    static Config config(String... keysAndValues) {
+        Properties properties = new Properties();
+        properties.setProperty("RandomSeed", "42");
+        for (int i = 0; i < keysAndValues.length; i += 2)
+            properties.setProperty(keysAndValues[i], keysAndValues[i + 1]);
+        return new Config(logger, properties);
+    }
+}
@@ -0,0 +1,96 @@
+package bguspl.set.benchmarks;
+
+import bguspl.set.Clock;
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.HeadlessUserInterface;
+import bguspl.set.RealTimeClock;
+import bguspl.set.UtilImpl;
+import bguspl.set.VirtualClock;
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * An end-to-end benchmark of whole headless games between computer players: key presses, claims submitted to the
+ * dealer, and claims examined. Besides games per second it reports the claims and the legal sets per second.
+ * On the virtual clock the configured delays are kept (they are not waited for), in real time they are zeroed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 10)
+@Fork(1)
+public class GameBenchmark {
+
+    /**
+     * The claims and sets of the games played in an iteration, reported per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+
+        public long claims;
+
+        public long sets;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            claims = 0;
+            sets = 0;
+        }
+    }
+
+    @Param({"virtual", "real"})
+    public String clock;
+
+    @Param({"3"})
+    public int players;
+
+    private Config config;
+
+    private int game;
+
+    @Setup
+    public void setup() {
+        boolean real = clock.equals("real");
+        String delay = real ? "0" : "1";
+        config = Benchmarks.config("HumanPlayers", "0", "ComputerPlayers", Integer.toString(players),
+                "TableDelaySeconds", real ? "0" : "0.1", "ComputerDelaySeconds", delay,
+                "PointFreezeSeconds", delay, "PenaltyFreezeSeconds", real ? "0" : "3");
+    }
+
+    @Benchmark
+    public int game(Counters counters) {
+        Clock gameClock = clock.equals("real") ? new RealTimeClock() : new VirtualClock();
+        HeadlessUserInterface ui = new HeadlessUserInterface(config, false);
+        Env env = new Env(Benchmarks.logger, config, ui, new UtilImpl(config), gameClock);
+
+        Player[] gamePlayers = new Player[config.players];
+        Table table = new Table(env);
+        Dealer dealer = new Dealer(env, table, gamePlayers);
+        for (int i = 0; i < gamePlayers.length; i++)
+            gamePlayers[i] = new Player(env, dealer, table, i, false);
+        dealer.run();
+
+        counters.claims += dealer.getClaimCount();
+        counters.sets += dealer.getSetCount();
+        return ++game;
+    }
+}
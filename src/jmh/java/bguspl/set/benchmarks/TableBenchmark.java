@@ -0,0 +1,82 @@
+package bguspl.set.benchmarks;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.HeadlessUserInterface;
+import bguspl.set.UtilImpl;
+import bguspl.set.ex.Table;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of the table mutations with no table delay: replacing the card in a slot (which also updates the index
+ * of the sets on the table), and placing and removing a token.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TableBenchmark {
+
+    private Table table;
+
+    /**
+     * The card in each slot of the table.
+     */
+    private int[] slots;
+
+    /**
+     * The cards that are not on the table, in the order they are placed (a ring).
+     */
+    private int[] spare;
+
+    private int nextSpare, nextSlot;
+
+    @Setup
+    public void setup() {
+        Config config = Benchmarks.config("TableDelaySeconds", "0");
+        Env env = new Env(Benchmarks.logger, config, new HeadlessUserInterface(config, false), new UtilImpl(config));
+        table = new Table(env);
+        slots = new int[config.tableSize];
+        for (int slot = 0; slot < slots.length; ++slot) {
+            table.placeCard(slot, slot);
+            slots[slot] = slot;
+        }
+        spare = new int[config.deckSize - config.tableSize];
+        for (int i = 0; i < spare.length; ++i)
+            spare[i] = config.tableSize + i;
+    }
+
+    @Benchmark
+    public int replaceCard() {
+        int slot = nextSlot;
+        nextSlot = (nextSlot + 1) % slots.length;
+        table.removeCard(slot);
+        table.placeCard(spare[nextSpare], slot);
+        int card = slots[slot];
+        slots[slot] = spare[nextSpare];
+        spare[nextSpare] = card;
+        nextSpare = (nextSpare + 1) % spare.length;
+        return table.countSets();
+    }
+
+    @Benchmark
+    public boolean placeAndRemoveToken() {
+        int slot = nextSlot;
+        nextSlot = (nextSlot + 1) % slots.length;
+        table.placeToken(0, slot);
+        return table.removeToken(0, slot);
+    }
+}
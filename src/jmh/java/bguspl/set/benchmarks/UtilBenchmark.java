@@ -0,0 +1,103 @@
+package bguspl.set.benchmarks;
+
+import bguspl.set.Config;
+import bguspl.set.UtilImpl;
+import bguspl.set.ex.Deck;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks of set detection: testing a single triple, and finding the sets among the cards on the table and among
+ * the whole deck, for several numbers of features (81, 243 and 729 cards).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UtilBenchmark {
+
+    /**
+     * The number of random triples tested in turn (a power of 2).
+     */
+    private static final int TRIPLES = 1024;
+
+    @Param({"4", "5", "6"})
+    public int featureCount;
+
+    private UtilImpl util;
+
+    private int[] triples;
+
+    private int[] table;
+
+    private int[] deck;
+
+    private int[] sets;
+
+    private int next;
+
+    @Setup
+    public void setup() {
+        Config config = Benchmarks.config("FeatureCount", Integer.toString(featureCount));
+        util = new UtilImpl(config);
+
+        Random random = new Random(config.randomSeed);
+        triples = new int[3 * TRIPLES];
+        for (int i = 0; i < TRIPLES; ++i) { // a third of the triples are legal sets
+            int a = random.nextInt(config.deckSize), b = random.nextInt(config.deckSize);
+            while (b == a) b = random.nextInt(config.deckSize);
+            int c = i % 3 == 0 ? util.completeSet(a, b) : random.nextInt(config.deckSize);
+            triples[3 * i] = a;
+            triples[3 * i + 1] = b;
+            triples[3 * i + 2] = c;
+        }
+
+        Deck shuffled = new Deck(config.deckSize, config.randomSeed);
+        deck = new int[config.deckSize];
+        for (int i = 0; i < deck.length; ++i)
+            deck[i] = shuffled.draw();
+        table = new int[config.tableSize];
+        System.arraycopy(deck, 0, table, 0, table.length);
+        sets = new int[3 * util.countSets(deck, deck.length)];
+    }
+
+    @Benchmark
+    public boolean testSet() {
+        int i = 3 * (next++ & (TRIPLES - 1));
+        return util.testSet(triples[i], triples[i + 1], triples[i + 2]);
+    }
+
+    @Benchmark
+    public int findSetsTable() {
+        return util.findSets(table, table.length, sets, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public boolean hasSetTable() {
+        return util.hasSet(table, table.length);
+    }
+
+    @Benchmark
+    public int findSetsDeck() {
+        return util.findSets(deck, deck.length, sets, Integer.MAX_VALUE);
+    }
+
+    @Benchmark
+    public int countSetsDeck() {
+        return util.countSets(deck, deck.length);
+    }
+}
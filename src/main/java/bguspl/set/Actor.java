@@ -0,0 +1,154 @@
+package bguspl.set;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An actor of a game: an object that handles its messages on turns given to it by a pool of worker threads, instead
+ * of on a thread of its own. The messages are kept by the actor itself in bounded mailboxes, one for each kind of
+ * message (e.g. a queue of key presses, or a single slot for the verdict on a claim). A sender stores its message and
+ * wakes the actor up, and the actor handles everything in its mailboxes on its next turn.
+ * The turns of an actor never overlap, so an actor handles its messages one at a time. An actor never blocks: to
+ * wait, it sets a timer on the game clock that wakes it up, so a few workers can run the actors of many games.
+ * The game clock is held while an actor waits for a turn or runs one, so a simulated clock only moves once all the
+ * actors of the game are idle.
+ *
+ * @inv wakeups > 0 iff the actor is queued in the pool or running (or stopped)
+ */
+public abstract class Actor {
+
+    /**
+     * The most times an actor handles its mailboxes in one turn, before it yields its worker to the other actors.
+     */
+    private static final int TURN_LIMIT = 64;
+
+    private final ActorPool pool;
+    private final Clock clock;
+    private final GameMetrics metrics;
+
+    /**
+     * The number of times the actor was woken up since its mailboxes were last handled.
+     */
+    private final AtomicInteger wakeups = new AtomicInteger();
+
+    /**
+     * True iff the actor stopped (it gets no more turns).
+     */
+    private volatile boolean stopped;
+
+    /**
+     * The next actor waiting for a turn in the pool (guarded by the pool).
+     */
+    Actor next;
+
+    /**
+     * @param env - the environment of the actor's game (the actor runs on its pool and holds its clock).
+     */
+    protected Actor(Env env) {
+        pool = env.pool;
+        clock = env.clock;
+        metrics = env.metrics;
+    }
+
+    /**
+     * Wakes the actor up, so it handles its mailboxes on a turn soon. Called after storing a message, from any thread
+     * (including the actor's own turn, and tasks scheduled on the clock). Allocates nothing.
+     */
+    protected final void wake() {
+        if (!stopped && wakeups.getAndIncrement() == 0) {
+            clock.hold();
+            if (!pool.submit(this))
+                clock.release(); // the pool is closed, the actor gets no more turns
+        }
+    }
+
+    /**
+     * Stops the actor: it gets no more turns after the current one (called on the actor's turn).
+     */
+    protected final void stop() {
+        stopped = true;
+    }
+
+    /**
+     * @return - true iff the actor stopped.
+     */
+    public final boolean isStopped() {
+        return stopped;
+    }
+
+    /**
+     * Handles the messages in the actor's mailboxes (called on the actor's turns).
+     */
+    protected abstract void receive();
+
+    /**
+     * Called on the actor's turn when receive failed. The actor is stopped (and finished is called even if this
+     * fails too).
+     *
+     * @param e - the failure.
+     */
+    protected abstract void failed(RuntimeException e);
+
+    /**
+     * Called after the last turn of the actor, once it stopped (before the clock is released).
+     */
+    protected void finished() {
+    }
+
+    /**
+     * Runs a turn of the actor (called by a worker of the pool). The CPU time and memory of the turn are charged to
+     * the actor's game.
+     */
+    final void turn() {
+        long cpu = GameMetrics.threadCpuNanos(), bytes = GameMetrics.threadAllocatedBytes();
+        metrics.turnStarted();
+        boolean yielded = false;
+        try {
+            yielded = handle();
+        } catch (Throwable e) { // an Error, or failed failed too: the actor stops, and the worker reports it
+            stopped = true;
+            throw e;
+        } finally {
+            metrics.turnFinished(GameMetrics.threadCpuNanos() - cpu, GameMetrics.threadAllocatedBytes() - bytes);
+            if (yielded)
+                pool.resubmit(this); // still holding the clock
+            else
+                release();
+        }
+    }
+
+    /**
+     * Ends the turn of the actor: finishes it if it stopped, and releases the clock (even if finishing failed).
+     */
+    private void release() {
+        try {
+            if (stopped)
+                finished();
+        } finally {
+            clock.release();
+        }
+    }
+
+    /**
+     * Handles the mailboxes until the actor was not woken up meanwhile, or stopped.
+     *
+     * @return - true iff the actor should get another turn right away (it reached TURN_LIMIT).
+     */
+    private boolean handle() {
+        int handled = wakeups.get();
+        for (int i = 1; ; ++i) {
+            try {
+                receive();
+            } catch (RuntimeException e) {
+                stopped = true;
+                failed(e);
+            }
+            if (stopped)
+                return false; // wakeups stay positive, so the actor is never queued again
+            handled = wakeups.addAndGet(-handled);
+            if (handled == 0)
+                return false;
+            if (i == TURN_LIMIT)
+                return true;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package bguspl.set;
+
+import java.io.Closeable;
+
+/**
+ * A fixed pool of worker threads running the turns of actors (see Actor). Actors waiting for a turn are queued in
+ * the order they were woken up, linked through the actors themselves, so queuing an actor allocates nothing. An actor
+ * is queued at most once at a time, so the queue never holds more actors than exist.
+ * The games in the process share one pool (see shared) unless they are given their own, e.g. by a GameHost.
+ */
+public class ActorPool implements Closeable {
+
+    /**
+     * The pool shared by all the games in the process (as many daemon threads as cores).
+     */
+    private static final ActorPool shared = new ActorPool("actor", Runtime.getRuntime().availableProcessors());
+
+    private final Thread[] workers;
+
+    /**
+     * The actors waiting for a turn, from the first to the last (null if none).
+     */
+    private Actor head, tail;
+
+    /**
+     * True iff the pool was closed (the workers finish the queued turns and exit).
+     */
+    private boolean closed;
+
+    /**
+     * @param name    - the prefix of the worker threads' names.
+     * @param threads - the number of worker threads.
+     */
+    public ActorPool(String name, int threads) {
+        workers = new Thread[Math.max(1, threads)];
+        for (int i = 0; i < workers.length; ++i) {
+            workers[i] = new Thread(this::work, name + "-" + (i + 1));
+            workers[i].setDaemon(true);
+            workers[i].start();
+        }
+    }
+
+    /**
+     * @return - the pool shared by all the games in the process.
+     */
+    public static ActorPool shared() {
+        return shared;
+    }
+
+    /**
+     * @return - the number of worker threads.
+     */
+    public int getThreads() {
+        return workers.length;
+    }
+
+    /**
+     * Queues an actor for a turn, unless the pool is closed.
+     *
+     * @param actor - the actor (not queued already).
+     * @return      - false iff the pool is closed (the actor gets no turn).
+     */
+    synchronized boolean submit(Actor actor) {
+        if (closed)
+            return false;
+        enqueue(actor);
+        return true;
+    }
+
+    /**
+     * Queues an actor that yielded its worker for the rest of its turn (even if the pool was closed meanwhile, as
+     * the turn was queued before).
+     *
+     * @param actor - the actor (not queued already).
+     */
+    synchronized void resubmit(Actor actor) {
+        enqueue(actor);
+    }
+
+    private void enqueue(Actor actor) {
+        if (tail == null)
+            head = actor;
+        else
+            tail.next = actor;
+        tail = actor;
+        notify();
+    }
+
+    /**
+     * @return - the next actor to run, waiting for one if there is none (null once the pool is closed and empty).
+     */
+    private synchronized Actor take() {
+        while (head == null) {
+            if (closed)
+                return null;
+            try {
+                wait();
+            } catch (InterruptedException e) {
+                return null;
+            }
+        }
+        Actor actor = head;
+        head = actor.next;
+        if (head == null)
+            tail = null;
+        actor.next = null;
+        return actor;
+    }
+
+    /**
+     * The main loop of the worker threads.
+     */
+    private void work() {
+        for (Actor actor = take(); actor != null; actor = take()) {
+            try {
+                actor.turn();
+            } catch (Throwable e) { // an error that the actor did not handle, report it and keep the worker
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+        }
+    }
+
+    /**
+     * Stops the workers once the queued turns are done (actors woken up later get no turns), and waits for them.
+     */
+    @Override
+    public void close() {
+        synchronized (this) {
+            closed = true;
+            notifyAll();
+        }
+        for (Thread worker : workers) {
+            if (worker == Thread.currentThread())
+                continue;
+            try {
+                worker.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+}
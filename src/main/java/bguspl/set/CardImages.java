@@ -0,0 +1,229 @@
+package bguspl.set;
+
+import javax.imageio.ImageIO;
+import java.awt.*;
+import java.awt.image.BufferedImage;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.logging.Logger;
+
+/**
+ * The images of the cards, shared by all the windows in the process (one instance per deck of cards).
+ * The images are decoded in parallel in the background, and a card that is needed before its turn is decoded on
+ * demand. They are kept in the format of the screen, so drawing them does not convert them every time.
+ * If the resource cards/atlas.png exists (see packAtlas), all the images are cut from it instead of being decoded
+ * one by one.
+ */
+public class CardImages {
+
+    /**
+     * The name of the atlas resource, and of the resource describing it.
+     */
+    private static final String ATLAS = "cards/atlas.png", ATLAS_PROPERTIES = "cards/atlas.properties";
+
+    /**
+     * The card images of each deck, by the number of features and their size.
+     */
+    private static final ConcurrentHashMap<String, CardImages> decks = new ConcurrentHashMap<>();
+
+    /**
+     * The threads decoding the images in the background (daemon threads, shared by all the decks).
+     */
+    private static final ExecutorService loader = Executors.newFixedThreadPool(
+            Runtime.getRuntime().availableProcessors(), task -> {
+                Thread thread = new Thread(task, "card-image-loader");
+                thread.setDaemon(true);
+                return thread;
+            });
+
+    /**
+     * The configuration of the deck.
+     */
+    private final Config config;
+
+    /**
+     * The image of each card (null if not decoded yet), and of an empty slot at index config.deckSize.
+     */
+    private final AtomicReferenceArray<BufferedImage> images;
+
+    /**
+     * The description of the atlas (null if there is no atlas for this deck).
+     */
+    private final Properties atlas;
+
+    private CardImages(Config config) {
+        this.config = config;
+        images = new AtomicReferenceArray<>(config.deckSize + 1);
+        atlas = loadAtlasProperties(config);
+    }
+
+    /**
+     * @param config - the game configuration.
+     * @return       - the images of the game's deck (started loading in the background on first use).
+     */
+    public static CardImages get(Config config) {
+        return decks.computeIfAbsent(config.featureSize + "^" + config.featureCount, key -> {
+            CardImages deck = new CardImages(config);
+            deck.preload();
+            return deck;
+        });
+    }
+
+    /**
+     * @param card - the card id.
+     * @return     - the image of the card (decoded now if it was not decoded yet).
+     */
+    public Image card(int card) {
+        return image(card);
+    }
+
+    /**
+     * @return - the image of an empty slot (decoded now if it was not decoded yet).
+     */
+    public Image emptyCard() {
+        return image(config.deckSize);
+    }
+
+    /**
+     * Decodes all the images that are not decoded yet, in parallel in the background.
+     */
+    private void preload() {
+        if (atlas != null) {
+            loader.execute(() -> image(0)); // decoding the atlas decodes all the images at once
+            return;
+        }
+        for (int i = config.deckSize; i >= 0; --i) { // the empty card first, it is shown first
+            int index = i;
+            loader.execute(() -> image(index));
+        }
+    }
+
+    private BufferedImage image(int index) {
+        BufferedImage image = images.get(index);
+        if (image == null) {
+            if (atlas != null) {
+                loadAtlas();
+            } else {
+                String name = index == config.deckSize ? "empty_card"
+                        : UserInterfaceImpl.intInBaseToPaddedString(index, config.featureCount, config.featureSize);
+                images.compareAndSet(index, null, toCompatible(read("cards/" + name + ".png")));
+            }
+            image = images.get(index); // if it was decoded twice at the same time, all use the first one
+        }
+        return image;
+    }
+
+    /**
+     * Decodes the atlas and cuts the images from it (they share its memory). Done once, even if called by several
+     * threads at the same time.
+     */
+    private synchronized void loadAtlas() {
+        if (images.get(0) != null) return;
+        BufferedImage sheet = toCompatible(read(ATLAS));
+        int columns = Integer.parseInt(atlas.getProperty("Columns"));
+        int width = Integer.parseInt(atlas.getProperty("CardWidth"));
+        int height = Integer.parseInt(atlas.getProperty("CardHeight"));
+        for (int i = config.deckSize; i >= 0; --i) // card 0 last, it marks the atlas as decoded
+            images.set(i, sheet.getSubimage(i % columns * width, i / columns * height, width, height));
+    }
+
+    /**
+     * @return - the description of the atlas, or null if there is no atlas of the deck's cards.
+     */
+    private static Properties loadAtlasProperties(Config config) {
+        URL resource = CardImages.class.getClassLoader().getResource(ATLAS_PROPERTIES);
+        if (resource == null) return null;
+        Properties properties = new Properties();
+        try (InputStream is = resource.openStream()) {
+            properties.load(is);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Integer.parseInt(properties.getProperty("Cards", "0")) == config.deckSize ? properties : null;
+    }
+
+    private static BufferedImage read(String name) {
+        URL resource = CardImages.class.getClassLoader().getResource(name);
+        if (resource == null)
+            throw new RuntimeException(new FileNotFoundException(name));
+        try {
+            return ImageIO.read(resource);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return - a copy of the image in the format of the screen (or the image itself if there is no screen).
+     */
+    private static BufferedImage toCompatible(BufferedImage image) {
+        if (GraphicsEnvironment.isHeadless())
+            return image;
+        GraphicsConfiguration screen = GraphicsEnvironment.getLocalGraphicsEnvironment()
+                .getDefaultScreenDevice().getDefaultConfiguration();
+        if (image.getColorModel().equals(screen.getColorModel()))
+            return image;
+        BufferedImage compatible = screen.createCompatibleImage(image.getWidth(), image.getHeight(), image.getTransparency());
+        Graphics2D g = compatible.createGraphics();
+        g.drawImage(image, 0, 0, null);
+        g.dispose();
+        return compatible;
+    }
+
+    /**
+     * Packs the card images of a deck into a single atlas resource (cards/atlas.png and cards/atlas.properties),
+     * which is then used instead of the separate images.
+     *
+     * @param config    - the game configuration (the deck to pack).
+     * @param directory - the resources directory to write the atlas to.
+     */
+    public static void packAtlas(Config config, Path directory) throws IOException {
+        CardImages deck = new CardImages(config);
+        BufferedImage first = deck.image(0);
+        int width = first.getWidth(), height = first.getHeight();
+        int count = config.deckSize + 1;
+        int columns = (int) Math.ceil(Math.sqrt(count));
+        BufferedImage sheet = new BufferedImage(columns * width, (count + columns - 1) / columns * height,
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g = sheet.createGraphics();
+        for (int i = 0; i < count; ++i)
+            g.drawImage(deck.image(i), i % columns * width, i / columns * height, null);
+        g.dispose();
+
+        Files.createDirectories(directory.resolve(ATLAS).getParent());
+        ImageIO.write(sheet, "png", directory.resolve(ATLAS).toFile());
+        Properties properties = new Properties();
+        properties.setProperty("Cards", Integer.toString(config.deckSize));
+        properties.setProperty("Columns", Integer.toString(columns));
+        properties.setProperty("CardWidth", Integer.toString(width));
+        properties.setProperty("CardHeight", Integer.toString(height));
+        try (OutputStream os = Files.newOutputStream(directory.resolve(ATLAS_PROPERTIES))) {
+            properties.store(os, "the layout of " + ATLAS + " (card i is at column i % Columns, row i / Columns; the empty card is last)");
+        }
+    }
+
+    /**
+     * Packs the card images into an atlas.
+     *
+     * @param args - the resources directory to write the atlas to (default src/main/resources) and the
+     *             configuration file (default config.properties).
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : "src/main/resources");
+        String configFilename = args.length > 1 ? args[1] : "config.properties";
+        Config config = new Config(Logger.getLogger("SetAtlasLogger"), configFilename);
+        packAtlas(config, directory);
+    }
+}
@@ -0,0 +1,37 @@
+package bguspl.set;
+
+/**
+ * An interface for the game's time: reading the time and scheduling tasks. The game's actors never block, they
+ * schedule a task to wake them up instead, and they hold the clock while they have work to do, so a simulated clock
+ * can tell when the whole game is waiting and skip ahead.
+ */
+public interface Clock {
+
+    /**
+     * @return - the current time in milliseconds.
+     */
+    long currentTimeMillis();
+
+    /**
+     * @return - the current value of a time source with nanosecond precision (only differences are meaningful).
+     */
+    long nanoTime();
+
+    /**
+     * Runs a task once, after a delay.
+     * @param task        - the task to run (should be short and must not block).
+     * @param delayMillis - the number of milliseconds to wait before running it.
+     */
+    void schedule(Runnable task, long delayMillis);
+
+    /**
+     * Holds time still (on a simulated clock) until released, e.g. while an actor waits for a worker thread to run it
+     * or runs. Holds are counted, so every hold must be released exactly once.
+     */
+    void hold();
+
+    /**
+     * Releases a hold taken with hold.
+     */
+    void release();
+}
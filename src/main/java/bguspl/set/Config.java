@@ -40,6 +40,16 @@ public class Config {
      */
     public final int computerPlayers;
 
+    /**
+     * The number of human players that play over the network (the last ones of the human players)
+     */
+    public final int remotePlayers;
+
+    /**
+     * The TCP port the game server listens on for remote players
+     */
+    public final int serverPort;
+
     /**
      * The total number of players (human + computer) in the game
      */
@@ -75,6 +85,61 @@ public class Config {
      */
     public final long tableDelayMillis;
 
+    /**
+     * The number of milliseconds a computer player waits between key presses
+     */
+    public final long computerDelayMillis;
+
+    /**
+     * How computer players choose their key presses: "random" (random slots) or "oracle" (the sets on the table)
+     */
+    public final String computerStrategy;
+
+    /**
+     * The mean number of milliseconds an oracle computer player takes to react to the table (find a set)
+     */
+    public final long computerReactionMillis;
+
+    /**
+     * The distribution of the reaction times of oracle computer players: fixed, uniform, exponential or lognormal
+     */
+    public final String computerReactionDistribution;
+
+    /**
+     * The spread (sigma of the underlying normal distribution) of lognormal reaction times
+     */
+    public final double computerReactionSigma;
+
+    /**
+     * The probability that an oracle computer player claims three random slots instead of a set
+     */
+    public final double computerErrorRate;
+
+    /**
+     * The number of milliseconds an oracle computer player waits between the key presses of a claim
+     */
+    public final long computerKeyDelayMillis;
+
+    /**
+     * The seed for shuffling the deck (the same seed deals the same game)
+     */
+    public final long randomSeed;
+
+    /**
+     * The file to record the game journal to, for replaying the game later (empty for no journal)
+     */
+    public final String journalFile;
+
+    /**
+     * Whether to run the game without a window (no display and no keyboard input)
+     */
+    public final boolean headless;
+
+    /**
+     * Whether a headless game of computer players only runs on a simulated clock (as fast as possible)
+     */
+    public final boolean virtualClock;
+
     /**
      * The names of the players to display on the screen
      * Note: if there are more players than names, the remaining players will be called "Player 3", "Player 4", etc.
@@ -144,7 +209,7 @@ public class Config {
      * @param filename - the name of the configuration file.
      * @return - a properties object with the configuration file contents.
      */
-    private static Properties loadProperties(String filename, Logger logger) {
+    static Properties loadProperties(String filename, Logger logger) {
 
         Properties properties = new Properties();
 
@@ -178,6 +243,8 @@ public class Config {
         humanPlayers = Integer.parseInt(properties.getProperty("HumanPlayers", "2"));
         computerPlayers = Integer.parseInt(properties.getProperty("ComputerPlayers", "0"));
         players = humanPlayers + computerPlayers;
+        remotePlayers = Math.min(humanPlayers, Integer.parseInt(properties.getProperty("RemotePlayers", "0")));
+        serverPort = Integer.parseInt(properties.getProperty("ServerPort", "7413"));
 
         hints = Boolean.parseBoolean(properties.getProperty("Hints", "False"));
         turnTimeoutMillis = (long) (Double.parseDouble(properties.getProperty("TurnTimeoutSeconds", "60")) * 1000.0);
@@ -185,8 +252,21 @@ public class Config {
         pointFreezeMillis = (long) (Double.parseDouble(properties.getProperty("PointFreezeSeconds", "1")) * 1000.0);
         penaltyFreezeMillis = (long) (Double.parseDouble(properties.getProperty("PenaltyFreezeSeconds", "3")) * 1000.0);
         tableDelayMillis = (long) (Double.parseDouble(properties.getProperty("TableDelaySeconds", "0.1")) * 1000.0);
+        computerDelayMillis = (long) (Double.parseDouble(properties.getProperty("ComputerDelaySeconds", "1")) * 1000.0);
+        computerStrategy = properties.getProperty("ComputerStrategy", "random").trim().toLowerCase();
+        computerReactionMillis = (long) (Double.parseDouble(properties.getProperty("ComputerReactionSeconds", "2")) * 1000.0);
+        computerReactionDistribution = properties.getProperty("ComputerReactionDistribution", "lognormal").trim().toLowerCase();
+        computerReactionSigma = Double.parseDouble(properties.getProperty("ComputerReactionSigma", "0.5"));
+        computerErrorRate = Double.parseDouble(properties.getProperty("ComputerErrorRate", "0.1"));
+        computerKeyDelayMillis = (long) (Double.parseDouble(properties.getProperty("ComputerKeyDelaySeconds", "0.1")) * 1000.0);
+        String seed = properties.getProperty("RandomSeed", "").trim();
+        randomSeed = seed.isEmpty() ? System.nanoTime() : Long.parseLong(seed);
+        logger.log(Level.INFO, "random seed is " + randomSeed);
+        journalFile = properties.getProperty("JournalFile", "").trim();
 
         // ui data
+        headless = Boolean.parseBoolean(properties.getProperty("Headless", "False"));
+        virtualClock = Boolean.parseBoolean(properties.getProperty("VirtualClock", "False"));
         String[] names = properties.getProperty("PlayerNames", "Player 1, Player 2").split(",");
         playerNames = new String[players];
         Arrays.setAll(playerNames, i -> i < names.length ? names[i].trim() : "Player " + (i + 1));
@@ -8,11 +8,43 @@ public class Env {
     public final Config config;
     public final UserInterface ui;
     public final Util util;
+    public final Clock clock;
+    public final GameLog log;
+    public final Journal journal; // null if the game is not recorded
+    public final GameMetrics metrics;
+    public final ActorPool pool; // runs the turns of the game's actors
 
-    public Env(Logger logger, Config config, UserInterface ui, Util util) {
+    public Env(Logger logger, Config config, UserInterface ui, Util util, Clock clock, GameLog log, Journal journal,
+               GameMetrics metrics, ActorPool pool) {
         this.logger = logger;
         this.config = config;
         this.ui = ui;
         this.util = util;
+        this.clock = clock;
+        this.log = log;
+        this.journal = journal;
+        this.metrics = metrics;
+        this.pool = pool;
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util, Clock clock, GameLog log, Journal journal,
+               GameMetrics metrics) {
+        this(logger, config, ui, util, clock, log, journal, metrics, ActorPool.shared());
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util, Clock clock, GameLog log, Journal journal) {
+        this(logger, config, ui, util, clock, log, journal, new GameMetrics(config.players));
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util, Clock clock, GameLog log) {
+        this(logger, config, ui, util, clock, log, null);
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util, Clock clock) {
+        this(logger, config, ui, util, clock, new GameLog(logger));
+    }
+
+    public Env(Logger logger, Config config, UserInterface ui, Util util) {
+        this(logger, config, ui, util, new RealTimeClock());
     }
 }
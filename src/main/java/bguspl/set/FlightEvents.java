@@ -0,0 +1,143 @@
+package bguspl.set;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * The Flight Recorder events of the game: the life of a claim (key press, token, submission, verdict) and the
+ * dealer's phases (dealing and reshuffling). They are disabled by default, and the game checks the TYPE of an
+ * event before creating it, so nothing is allocated or recorded unless a recording enables them, e.g. with
+ * -XX:StartFlightRecording:settings=default,+bguspl.set.ClaimVerified#enabled=true or in a .jfc file.
+ * The events can then be lined up against GC pauses, lock contention and thread states in the same recording.
+ */
+public final class FlightEvents {
+
+    private FlightEvents() {
+    }
+
+    @Name("bguspl.set.KeyPress")
+    @Label("Key Press")
+    @Description("A key press of a player was received")
+    @Category({"Set Game", "Claims"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class KeyPress extends Event {
+
+        public static final EventType TYPE = EventType.getEventType(KeyPress.class);
+
+        @Label("Player")
+        public int player;
+
+        @Label("Slot")
+        public int slot;
+
+        @Label("Accepted")
+        @Description("False if the press was ignored (the player is frozen, has presses pending or the slot is empty)")
+        public boolean accepted;
+    }
+
+    @Name("bguspl.set.TokenPlaced")
+    @Label("Token Placed")
+    @Category({"Set Game", "Claims"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class TokenPlaced extends Event {
+
+        public static final EventType TYPE = EventType.getEventType(TokenPlaced.class);
+
+        @Label("Player")
+        public int player;
+
+        @Label("Slot")
+        public int slot;
+    }
+
+    @Name("bguspl.set.ClaimSubmitted")
+    @Label("Claim Submitted")
+    @Description("A player's claim was queued for the dealer")
+    @Category({"Set Game", "Claims"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class ClaimSubmitted extends Event {
+
+        public static final EventType TYPE = EventType.getEventType(ClaimSubmitted.class);
+
+        @Label("Player")
+        public int player;
+
+        @Label("First Slot")
+        public int firstSlot;
+
+        @Label("Second Slot")
+        public int secondSlot;
+
+        @Label("Third Slot")
+        public int thirdSlot;
+    }
+
+    @Name("bguspl.set.ClaimVerified")
+    @Label("Claim Verified")
+    @Description("The dealer examined a claim (the duration of the examination, the cards of a legal set are replaced after it)")
+    @Category({"Set Game", "Claims"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class ClaimVerified extends Event {
+
+        public static final EventType TYPE = EventType.getEventType(ClaimVerified.class);
+
+        @Label("Player")
+        public int player;
+
+        @Label("First Slot")
+        public int firstSlot;
+
+        @Label("Second Slot")
+        public int secondSlot;
+
+        @Label("Third Slot")
+        public int thirdSlot;
+
+        @Label("Legal")
+        public boolean legal;
+
+        @Label("Queued")
+        @Description("The time the claim waited for the dealer")
+        @Timespan(Timespan.NANOSECONDS)
+        public long queued;
+    }
+
+    @Name("bguspl.set.CardsDealt")
+    @Label("Cards Dealt")
+    @Description("The dealer filled the empty slots of the table")
+    @Category({"Set Game", "Dealer"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class CardsDealt extends Event {
+
+        public static final EventType TYPE = EventType.getEventType(CardsDealt.class);
+
+        @Label("Cards")
+        public int cards;
+    }
+
+    @Name("bguspl.set.Reshuffle")
+    @Label("Reshuffle")
+    @Description("The dealer returned the cards on the table to the deck")
+    @Category({"Set Game", "Dealer"})
+    @Enabled(false)
+    @StackTrace(false)
+    public static final class Reshuffle extends Event {
+
+        public static final EventType TYPE = EventType.getEventType(Reshuffle.class);
+
+        @Label("Cards")
+        public int cards;
+    }
+}
@@ -0,0 +1,309 @@
+package bguspl.set;
+
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+
+import javax.management.JMException;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Hosts many independent games in one JVM. Games are created, started, terminated and finally reaped (forgotten)
+ * through the host. The games share the host's resources instead of each having its own: the dealers and the players
+ * of all the games are actors on one pool of worker threads (as many as the cores, however many games and players
+ * there are), the games log through one GameLog, time their tasks on the clock's shared scheduler and draw from the
+ * shared card images. Each game has its own GameMetrics, which account for the CPU time and memory of the turns of its
+ * actors and are registered with JMX while the game is hosted, so the load of every table can be watched and the host
+ * can be packed with as many tables as it can take.
+ * Finished games are kept for a while (so their results can be read) and then reaped in the background.
+ */
+public class GameHost implements Closeable {
+
+    /**
+     * The states of a hosted game.
+     */
+    public enum State {CREATED, RUNNING, FINISHED}
+
+    /**
+     * A game hosted by the host.
+     */
+    public static class Game {
+
+        public final int id;
+        public final Env env;
+        public final Table table;
+        public final Dealer dealer;
+        public final Player[] players;
+
+        private volatile State state = State.CREATED;
+        private final CountDownLatch finished = new CountDownLatch(1);
+        private volatile long finishedNanos;
+
+        Game(Env env) {
+            this.env = env;
+            id = env.metrics.getGame();
+            players = new Player[env.config.players];
+            table = new Table(env);
+            dealer = new Dealer(env, table, players);
+            for (int i = 0; i < players.length; i++)
+                players[i] = new Player(env, dealer, table, i, i < env.config.humanPlayers);
+        }
+
+        public State getState() {
+            return state;
+        }
+
+        /**
+         * @return - the score of each player.
+         */
+        public int[] getScores() {
+            int[] scores = new int[players.length];
+            Arrays.setAll(scores, i -> players[i].getScore());
+            return scores;
+        }
+    }
+
+    private final Logger logger;
+    private final GameLog log;
+
+    /**
+     * The most games hosted at once (including finished games that were not reaped yet).
+     */
+    private final int maxGames;
+
+    /**
+     * How long finished games are kept before they are reaped, in milliseconds.
+     */
+    private final long retainMillis;
+
+    /**
+     * The hosted games, by id.
+     */
+    private final ConcurrentHashMap<Integer, Game> games = new ConcurrentHashMap<>();
+
+    /**
+     * The worker threads running the actors of all the games.
+     */
+    private final ActorPool pool = new ActorPool("game-host-worker", Runtime.getRuntime().availableProcessors());
+
+    /**
+     * The thread reaping the finished games.
+     */
+    private final ScheduledExecutorService reaper = Executors.newSingleThreadScheduledExecutor(daemonThreads("game-host-reaper"));
+
+    /**
+     * @param logger       - the logger of the host (shared by the games).
+     * @param maxGames     - the most games hosted at once.
+     * @param retainMillis - how long finished games are kept before they are reaped.
+     */
+    public GameHost(Logger logger, int maxGames, long retainMillis) {
+        this.logger = logger;
+        this.maxGames = maxGames;
+        this.retainMillis = retainMillis;
+        log = new GameLog(logger);
+        long period = Math.max(100, retainMillis / 2);
+        reaper.scheduleWithFixedDelay(this::reap, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    private static ThreadFactory daemonThreads(String name) {
+        AtomicInteger count = new AtomicInteger();
+        return task -> {
+            Thread thread = new Thread(task, name + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Creates a game without a window (it is not started yet).
+     *
+     * @param properties - the configuration properties of the game.
+     * @return           - the game.
+     * @throws IllegalStateException - if the host is full.
+     */
+    public Game create(Properties properties) {
+        return create(properties, null);
+    }
+
+    /**
+     * Creates a game (it is not started yet).
+     *
+     * @param properties - the configuration properties of the game.
+     * @param ui         - the user interface of the game, e.g. a BroadcastUserInterface (null for none).
+     * @return           - the game.
+     * @throws IllegalStateException - if the host is full.
+     */
+    public Game create(Properties properties, UserInterface ui) {
+        Config config = new Config(logger, properties);
+        Clock clock = config.virtualClock && config.humanPlayers == 0 ? new VirtualClock() : new RealTimeClock();
+        GameMetrics metrics = new GameMetrics(config.players);
+        UserInterface metered = new MeteredUserInterface(ui != null ? ui : new HeadlessUserInterface(config, false), metrics);
+        Game game = new Game(new Env(logger, config, metered, new UtilImpl(config), clock, log, null, metrics, pool));
+        synchronized (games) {
+            if (games.size() >= maxGames)
+                throw new IllegalStateException("the host is full (" + maxGames + " games)");
+            games.put(game.id, game);
+        }
+        try {
+            metrics.register();
+        } catch (JMException e) {
+            log.log(Level.WARNING, "cannot register the metrics of game " + game.id + " with JMX: " + e);
+        }
+        return game;
+    }
+
+    /**
+     * Starts a game on the shared worker threads.
+     *
+     * @param id - the game id.
+     */
+    public void start(int id) {
+        Game game = get(id);
+        synchronized (game) {
+            if (game.state != State.CREATED)
+                throw new IllegalStateException("game " + id + " was already started");
+            game.state = State.RUNNING;
+            game.dealer.start(() -> {
+                game.finishedNanos = System.nanoTime();
+                game.state = State.FINISHED;
+                game.finished.countDown();
+            });
+        }
+    }
+
+    /**
+     * Terminates a game (it finishes shortly, and the winners are announced as usual).
+     *
+     * @param id - the game id.
+     */
+    public void terminate(int id) {
+        get(id).dealer.terminate();
+    }
+
+    /**
+     * Waits for a game to finish.
+     *
+     * @param id            - the game id.
+     * @param timeoutMillis - the most milliseconds to wait.
+     * @return              - true iff the game finished.
+     */
+    public boolean await(int id, long timeoutMillis) throws InterruptedException {
+        Game game = get(id);
+        return game.state != State.CREATED && game.finished.await(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * @param id - the game id.
+     * @return   - the hosted game.
+     * @throws IllegalArgumentException - if there is no such game (or it was reaped).
+     */
+    public Game get(int id) {
+        Game game = games.get(id);
+        if (game == null)
+            throw new IllegalArgumentException("no game " + id);
+        return game;
+    }
+
+    /**
+     * @return - the hosted games.
+     */
+    public List<Game> games() {
+        return new ArrayList<>(games.values());
+    }
+
+    /**
+     * Forgets the games that finished more than retainMillis ago (called periodically in the background).
+     *
+     * @return - the number of games reaped.
+     */
+    public int reap() {
+        long now = System.nanoTime();
+        int reaped = 0;
+        for (Game game : games.values()) {
+            if (game.state == State.FINISHED && now - game.finishedNanos >= TimeUnit.MILLISECONDS.toNanos(retainMillis)) {
+                remove(game);
+                ++reaped;
+            }
+        }
+        return reaped;
+    }
+
+    private void remove(Game game) {
+        games.remove(game.id);
+        try {
+            game.env.metrics.unregister();
+        } catch (JMException e) {
+            log.log(Level.WARNING, "cannot unregister the metrics of game " + game.id + ": " + e);
+        }
+    }
+
+    /**
+     * Terminates all the games, waits for them to finish and stops the host.
+     */
+    @Override
+    public void close() {
+        reaper.shutdownNow();
+        for (Game game : games.values())
+            game.dealer.terminate();
+        long deadline = System.nanoTime() + TimeUnit.MINUTES.toNanos(1);
+        try {
+            for (Game game : games.values())
+                if (game.state != State.CREATED)
+                    game.finished.await(Math.max(0, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        pool.close();
+        for (Game game : games.values())
+            remove(game);
+        log.close();
+    }
+
+    /**
+     * Hosts a batch of concurrent games of computer players, and prints the result and resources of each game.
+     *
+     * @param args - the number of games (default 100), the number of computer players per game (default 2) and the
+     *             configuration file (default config.properties).
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        String configFilename = args.length > 2 ? args[2] : "config.properties";
+        Logger logger = Logger.getLogger("SetHostLogger");
+        logger.setLevel(Level.WARNING);
+        Properties properties = Config.loadProperties(configFilename, logger);
+        properties.setProperty("HumanPlayers", "0");
+        properties.setProperty("ComputerPlayers", Integer.toString(players));
+
+        try (GameHost host = new GameHost(logger, count, TimeUnit.MINUTES.toMillis(10))) {
+            long start = System.nanoTime();
+            List<Game> games = new ArrayList<>();
+            for (int i = 0; i < count; ++i) {
+                games.add(host.create(properties));
+                host.start(games.get(i).id);
+            }
+            System.out.printf("%d games started, %d live threads%n", count, Thread.activeCount());
+            for (Game game : games)
+                host.await(game.id, Long.MAX_VALUE);
+            for (Game game : games)
+                System.out.printf("game %d: scores %s, %d claims, %d ms CPU, %d KB allocated%n", game.id,
+                        Arrays.toString(game.getScores()), game.dealer.getClaimCount(),
+                        game.env.metrics.getCpuMillis(), game.env.metrics.getAllocatedBytes() / 1024);
+            System.out.printf("%d games in %d ms%n", count, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+        }
+    }
+}
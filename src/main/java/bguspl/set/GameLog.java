@@ -0,0 +1,312 @@
+package bguspl.set;
+
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+/**
+ * An asynchronous log of the game in front of a java.util.logging Logger. The game threads append structured
+ * records (an event and its numbers) to a pre-allocated ring without locking, and a background thread formats them
+ * and passes them on to the logger's handlers. So logging never waits for the disk, and messages are only formatted
+ * if their level is logged. If the ring is full, records are dropped (and the number of records dropped is logged)
+ * rather than blocking the game.
+ * All the logs in the process share one background thread (like the games share one ActorPool), which sleeps until
+ * a log has records to write, so a log costs no thread and can be dropped without closing it.
+ *
+ * @inv head <= tail.get() <= head + capacity
+ */
+public class GameLog {
+
+    /**
+     * The events logged, with the format of their message. The arguments of the format are the name of the thread
+     * logging, the first number, the second number and the text of the record.
+     */
+    public enum Event {
+        MESSAGE("%4$s"),
+        THREAD_STARTING("Thread %1$s starting."),
+        THREAD_TERMINATED("Thread %1$s terminated."),
+        DEALER_STARTING("Dealer starting."),
+        DEALER_TERMINATED("Dealer terminated."),
+        PLAYER_STARTING("Player %2$d starting."),
+        PLAYER_TERMINATED("Player %2$d terminated."),
+        PLACE_CARD("placing card %2$d in slot %3$d"),
+        REMOVE_CARD("removing card from slot %3$d"),
+        SET_SCORE("setting player %2$d score to %3$d"),
+        SET_FREEZE("setting player %2$d freeze to %3$d"),
+        PLACE_TOKEN("player %2$d placing token on slot %3$d"),
+        REMOVE_TOKENS("removing all tokens"),
+        REMOVE_SLOT_TOKENS("removing tokens from slot %3$d"),
+        REMOVE_TOKEN("removing player %2$d token from slot %3$d"),
+        KEY_PRESSED("Key %3$d was pressed by player %2$d");
+
+        private final String format;
+
+        Event(String format) {
+            this.format = format;
+        }
+    }
+
+    /**
+     * The default number of records in the ring.
+     */
+    public static final int DEFAULT_CAPACITY = 8192;
+
+    /**
+     * The logs with records to write, from the first to the last (null if none), linked through the logs themselves
+     * so signalling the writer allocates nothing (guarded by the class).
+     */
+    private static GameLog pendingHead, pendingTail;
+
+    /**
+     * The background thread writing the records of all the logs (started with the first record).
+     */
+    private static Thread writer;
+
+    /**
+     * The logger the records are passed on to.
+     */
+    private final Logger logger;
+
+    /**
+     * The number of records in the ring (a power of 2), minus 1.
+     */
+    private final int mask;
+
+    /**
+     * The sequence of each entry of the ring: position + 1 once the record at position is written, and position
+     * when the entry is free for the record at position.
+     */
+    private final AtomicLongArray sequences;
+
+    /**
+     * The fields of the records in the ring.
+     */
+    private final Level[] levels;
+    private final Event[] events;
+    private final String[] threads;
+    private final String[] texts;
+    private final long[] times;
+    private final long[] firsts;
+    private final long[] seconds;
+
+    /**
+     * The position of the next record to append (shared by the game threads).
+     */
+    private final AtomicLong tail = new AtomicLong();
+
+    /**
+     * The position of the next record to write (guarded by the log).
+     */
+    private long head;
+
+    /**
+     * The number of records dropped since the last time it was reported.
+     */
+    private final AtomicLong dropped = new AtomicLong();
+
+    /**
+     * True iff the log is queued for the writer or being written, so appending needs not signal the writer.
+     */
+    private final AtomicBoolean pending = new AtomicBoolean();
+
+    /**
+     * The next log with records to write (guarded by the class).
+     */
+    private GameLog nextPending;
+
+    /**
+     * True iff the log was closed.
+     */
+    private volatile boolean closed;
+
+    /**
+     * @param logger   - the logger to pass the records on to.
+     * @param capacity - the number of records in the ring (rounded up to a power of 2).
+     */
+    public GameLog(Logger logger, int capacity) {
+        this.logger = logger;
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        mask = size - 1;
+        sequences = new AtomicLongArray(size);
+        for (int i = 0; i < size; ++i)
+            sequences.set(i, i);
+        levels = new Level[size];
+        events = new Event[size];
+        threads = new String[size];
+        texts = new String[size];
+        times = new long[size];
+        firsts = new long[size];
+        seconds = new long[size];
+    }
+
+    public GameLog(Logger logger) {
+        this(logger, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param level - a message level.
+     * @return      - true iff messages of the level are logged.
+     */
+    public boolean isLoggable(Level level) {
+        return logger.isLoggable(level);
+    }
+
+    /**
+     * Logs an event without numbers (e.g. a thread starting).
+     */
+    public void log(Level level, Event event) {
+        if (isLoggable(level))
+            append(level, event, null, 0, 0);
+    }
+
+    /**
+     * Logs an event with its numbers (e.g. a player and a slot).
+     */
+    public void log(Level level, Event event, long first, long second) {
+        if (isLoggable(level))
+            append(level, event, null, first, second);
+    }
+
+    /**
+     * Logs a text message (for rare messages, the text is built by the caller).
+     */
+    public void log(Level level, String message) {
+        if (isLoggable(level))
+            append(level, Event.MESSAGE, message, 0, 0);
+    }
+
+    private void append(Level level, Event event, String text, long first, long second) {
+        if (closed)
+            return;
+        long position;
+        int index;
+        while (true) {
+            position = tail.get();
+            index = (int) position & mask;
+            long sequence = sequences.get(index);
+            if (sequence == position) {
+                if (tail.compareAndSet(position, position + 1))
+                    break;
+            } else if (sequence < position) { // the ring is full
+                dropped.incrementAndGet();
+                signal();
+                return;
+            } // otherwise another thread took this position, try the next
+        }
+        levels[index] = level;
+        events[index] = event;
+        threads[index] = Thread.currentThread().getName();
+        texts[index] = text;
+        times[index] = System.currentTimeMillis();
+        firsts[index] = first;
+        seconds[index] = second;
+        sequences.set(index, position + 1); // publishes the record
+        signal();
+    }
+
+    /**
+     * Queues the log for the writer, unless it is queued or being written already.
+     */
+    private void signal() {
+        if (!pending.get() && pending.compareAndSet(false, true))
+            enqueue(this);
+    }
+
+    private static synchronized void enqueue(GameLog log) {
+        if (pendingTail == null)
+            pendingHead = log;
+        else
+            pendingTail.nextPending = log;
+        pendingTail = log;
+        if (writer == null) {
+            writer = new Thread(GameLog::write, "game-log");
+            writer.setDaemon(true);
+            writer.start();
+        } else {
+            GameLog.class.notify();
+        }
+    }
+
+    /**
+     * @return - the next log with records to write, waiting for one if there is none.
+     */
+    private static synchronized GameLog dequeue() {
+        while (pendingHead == null) {
+            try {
+                GameLog.class.wait();
+            } catch (InterruptedException e) {
+                // the writer is a daemon, it stops with the process
+            }
+        }
+        GameLog log = pendingHead;
+        pendingHead = log.nextPending;
+        if (pendingHead == null)
+            pendingTail = null;
+        log.nextPending = null;
+        return log;
+    }
+
+    /**
+     * The main loop of the background thread.
+     */
+    private static void write() {
+        while (true) {
+            GameLog log = dequeue();
+            try {
+                synchronized (log) {
+                    if (!log.closed)
+                        log.drain();
+                }
+            } catch (RuntimeException e) { // a handler failed, report it and keep writing the other logs
+                Thread thread = Thread.currentThread();
+                thread.getUncaughtExceptionHandler().uncaughtException(thread, e);
+            }
+            log.pending.set(false);
+            if (log.hasPending()) // appended after the drain, but saw the log still pending
+                log.signal();
+        }
+    }
+
+    /**
+     * @return - true iff the log has a record or a count of dropped records to write.
+     */
+    private synchronized boolean hasPending() {
+        return !closed && (sequences.get((int) head & mask) == head + 1 || dropped.get() > 0);
+    }
+
+    /**
+     * Writes all the records appended so far (called holding the log).
+     */
+    private void drain() {
+        while (true) {
+            int index = (int) head & mask;
+            if (sequences.get(index) != head + 1)
+                break;
+            LogRecord record = new LogRecord(levels[index], String.format(events[index].format, threads[index],
+                    firsts[index], seconds[index], texts[index]));
+            record.setInstant(Instant.ofEpochMilli(times[index]));
+            record.setLoggerName(logger.getName());
+            texts[index] = null;
+            sequences.set(index, head + mask + 1); // frees the entry for the record a ring later
+            ++head;
+            logger.log(record);
+        }
+        long lost = dropped.getAndSet(0);
+        if (lost > 0)
+            logger.log(Level.WARNING, lost + " log records were dropped (the log buffer was full)");
+    }
+
+    /**
+     * Writes the records left. Records appended after closing are not written.
+     */
+    public void close() {
+        closed = true;
+        synchronized (this) {
+            drain();
+        }
+    }
+}
@@ -0,0 +1,270 @@
+package bguspl.set;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * The metrics of a game: counters and latency histograms of the claims, the dealer and the user interface.
+ * Recording a metric is an atomic increment or two (latencies are measured with System.nanoTime, i.e. in real time
+ * even when the game runs on a virtual clock), so the metrics are always on. They can be watched live through JMX
+ * once registered, under bguspl.set:type=Game,game=N.
+ * The metrics also account for the resources the game uses: the CPU time and the memory allocated by the turns of its
+ * actors (see turnFinished), so the games sharing a JVM and its worker threads can be told apart.
+ */
+public class GameMetrics implements GameMetricsMXBean {
+
+    /**
+     * The user interface methods counted (see MeteredUserInterface).
+     */
+    public enum UiCall {
+        PLACE_CARD, REMOVE_CARD, SET_COUNTDOWN, SET_ELAPSED, SET_SCORE, SET_FREEZE, PLACE_TOKEN, REMOVE_TOKENS,
+        REMOVE_SLOT_TOKENS, REMOVE_TOKEN, ANNOUNCE_WINNER
+    }
+
+    /**
+     * The number of games created in the process so far.
+     */
+    private static final AtomicInteger games = new AtomicInteger();
+
+    /**
+     * The source of the CPU time and allocations of the threads (null if the JVM cannot measure them).
+     */
+    private static final com.sun.management.ThreadMXBean threadBean = threadBean();
+
+    /**
+     * The time from the key press that completed a claim to the claim being queued for the dealer.
+     */
+    public final Histogram inputToEnqueue = new Histogram("ns");
+
+    /**
+     * The time from a claim being queued to the dealer's verdict on it.
+     */
+    public final Histogram enqueueToVerdict = new Histogram("ns");
+
+    /**
+     * The time the dealer takes to test whether a claim is a set.
+     */
+    public final Histogram verification = new Histogram("ns");
+
+    /**
+     * The time the dealer takes to return the cards on the table to the deck and deal new ones.
+     */
+    public final Histogram reshuffle = new Histogram("ns");
+
+    /**
+     * The number of claims waiting for the dealer each time it looks for claims.
+     */
+    public final Histogram claimQueueDepth = new Histogram("claims");
+
+    private final int game = games.incrementAndGet();
+    private final long created = System.nanoTime();
+    private final AtomicLong legalClaims = new AtomicLong(), illegalClaims = new AtomicLong(),
+            canceledClaims = new AtomicLong(), dealerWakeups = new AtomicLong();
+    private final AtomicLongArray frozenMillis;
+    private final AtomicLongArray uiCalls = new AtomicLongArray(UiCall.values().length);
+
+    /**
+     * The CPU time and allocations of the turns of the game's actors.
+     */
+    private final AtomicLong cpuNanos = new AtomicLong(), allocatedBytes = new AtomicLong();
+
+    /**
+     * The number of turns of the game's actors running.
+     */
+    private final AtomicInteger turns = new AtomicInteger();
+
+    /**
+     * The names the metrics were registered under (null if not registered).
+     */
+    private ObjectName[] names;
+
+    /**
+     * @param players - the number of players in the game.
+     */
+    public GameMetrics(int players) {
+        frozenMillis = new AtomicLongArray(players);
+    }
+
+    /**
+     * Counts a claim examined by the dealer.
+     *
+     * @param legal - true iff the claim was a set.
+     */
+    public void claimExamined(boolean legal) {
+        (legal ? legalClaims : illegalClaims).incrementAndGet();
+    }
+
+    public void claimCanceled() {
+        canceledClaims.incrementAndGet();
+    }
+
+    public void dealerWokeUp() {
+        dealerWakeups.incrementAndGet();
+    }
+
+    public void playerFrozen(int player, long millis) {
+        frozenMillis.addAndGet(player, millis);
+    }
+
+    public void uiCalled(UiCall call) {
+        uiCalls.incrementAndGet(call.ordinal());
+    }
+
+    /**
+     * Counts a turn of one of the game's actors starting.
+     */
+    public void turnStarted() {
+        turns.incrementAndGet();
+    }
+
+    /**
+     * Counts a turn of one of the game's actors finishing, and charges the game for it.
+     *
+     * @param cpuNanos       - the CPU time of the turn (see threadCpuNanos).
+     * @param allocatedBytes - the memory allocated by the turn (see threadAllocatedBytes).
+     */
+    public void turnFinished(long cpuNanos, long allocatedBytes) {
+        turns.decrementAndGet();
+        this.cpuNanos.addAndGet(Math.max(0, cpuNanos));
+        this.allocatedBytes.addAndGet(Math.max(0, allocatedBytes));
+    }
+
+    /**
+     * @return - the CPU time used by the current thread so far, in nanoseconds (0 if the JVM cannot measure it).
+     */
+    public static long threadCpuNanos() {
+        return threadBean == null ? 0 : threadBean.getCurrentThreadCpuTime();
+    }
+
+    /**
+     * @return - the memory allocated by the current thread so far, in bytes (0 if the JVM cannot measure it).
+     */
+    public static long threadAllocatedBytes() {
+        return threadBean == null ? 0 : threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    private static com.sun.management.ThreadMXBean threadBean() {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean))
+            return null;
+        com.sun.management.ThreadMXBean bean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!bean.isThreadCpuTimeSupported() || !bean.isThreadAllocatedMemorySupported())
+            return null;
+        bean.setThreadCpuTimeEnabled(true);
+        bean.setThreadAllocatedMemoryEnabled(true);
+        return bean;
+    }
+
+    /**
+     * Registers the metrics with the platform MBean server: the counters as bguspl.set:type=Game,game=N and each
+     * histogram as bguspl.set:type=Game,game=N,histogram=Name.
+     */
+    public synchronized void register() throws JMException {
+        if (names != null) return;
+        String prefix = "bguspl.set:type=Game,game=" + game;
+        Object[] beans = {this, inputToEnqueue, enqueueToVerdict, verification, reshuffle, claimQueueDepth};
+        String[] suffixes = {"", ",histogram=InputToEnqueue", ",histogram=EnqueueToVerdict",
+                ",histogram=Verification", ",histogram=Reshuffle", ",histogram=ClaimQueueDepth"};
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName[] registered = new ObjectName[beans.length];
+        for (int i = 0; i < beans.length; ++i) {
+            registered[i] = new ObjectName(prefix + suffixes[i]);
+            server.registerMBean(beans[i], registered[i]);
+        }
+        names = registered;
+    }
+
+    /**
+     * Removes the metrics from the platform MBean server (if they were registered).
+     */
+    public synchronized void unregister() throws JMException {
+        if (names == null) return;
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (ObjectName name : names)
+            if (server.isRegistered(name))
+                server.unregisterMBean(name);
+        names = null;
+    }
+
+    @Override
+    public int getGame() {
+        return game;
+    }
+
+    @Override
+    public long getUptimeMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - created);
+    }
+
+    @Override
+    public int getThreads() {
+        return turns.get();
+    }
+
+    @Override
+    public long getCpuMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(cpuNanos.get());
+    }
+
+    @Override
+    public long getAllocatedBytes() {
+        return allocatedBytes.get();
+    }
+
+    @Override
+    public long getLegalClaims() {
+        return legalClaims.get();
+    }
+
+    @Override
+    public long getIllegalClaims() {
+        return illegalClaims.get();
+    }
+
+    @Override
+    public long getCanceledClaims() {
+        return canceledClaims.get();
+    }
+
+    @Override
+    public long getDealerWakeups() {
+        return dealerWakeups.get();
+    }
+
+    @Override
+    public long getMaxClaimQueueDepth() {
+        return claimQueueDepth.getMax();
+    }
+
+    @Override
+    public long[] getFrozenMillis() {
+        long[] millis = new long[frozenMillis.length()];
+        for (int i = 0; i < millis.length; ++i)
+            millis[i] = frozenMillis.get(i);
+        return millis;
+    }
+
+    @Override
+    public Map<String, Long> getUiCalls() {
+        Map<String, Long> calls = new LinkedHashMap<>();
+        for (UiCall call : UiCall.values())
+            calls.put(call.name(), uiCalls.get(call.ordinal()));
+        return calls;
+    }
+
+    @Override
+    public Map<String, Double> getUiCallsPerSecond() {
+        double seconds = Math.max(1, System.nanoTime() - created) / 1e9;
+        Map<String, Double> rates = new LinkedHashMap<>();
+        for (UiCall call : UiCall.values())
+            rates.put(call.name(), uiCalls.get(call.ordinal()) / seconds);
+        return rates;
+    }
+}
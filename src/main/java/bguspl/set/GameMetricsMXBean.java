@@ -0,0 +1,77 @@
+package bguspl.set;
+
+import java.util.Map;
+
+/**
+ * The counters of a game, as seen through JMX. The latency histograms of the game are registered as separate
+ * HistogramMXBeans (see GameMetrics.register).
+ */
+public interface GameMetricsMXBean {
+
+    /**
+     * @return - the number of the game in the process (starting from 1).
+     */
+    int getGame();
+
+    /**
+     * @return - the number of milliseconds since the game's metrics were created.
+     */
+    long getUptimeMillis();
+
+    /**
+     * @return - the number of worker threads currently running turns of the game's actors.
+     */
+    int getThreads();
+
+    /**
+     * @return - the CPU time used by the turns of the game's actors so far, in milliseconds (0 if the JVM cannot
+     *         measure it).
+     */
+    long getCpuMillis();
+
+    /**
+     * @return - the memory allocated by the turns of the game's actors so far, in bytes (0 if the JVM cannot measure
+     *         it).
+     */
+    long getAllocatedBytes();
+
+    /**
+     * @return - the number of claims ruled legal.
+     */
+    long getLegalClaims();
+
+    /**
+     * @return - the number of claims ruled illegal.
+     */
+    long getIllegalClaims();
+
+    /**
+     * @return - the number of claims returned to their players without being examined.
+     */
+    long getCanceledClaims();
+
+    /**
+     * @return - the number of turns the dealer got.
+     */
+    long getDealerWakeups();
+
+    /**
+     * @return - the most claims that were waiting for the dealer at once.
+     */
+    long getMaxClaimQueueDepth();
+
+    /**
+     * @return - the total number of milliseconds each player was frozen for.
+     */
+    long[] getFrozenMillis();
+
+    /**
+     * @return - the number of calls of each user interface method.
+     */
+    Map<String, Long> getUiCalls();
+
+    /**
+     * @return - the mean number of calls per second of each user interface method since the game started.
+     */
+    Map<String, Double> getUiCallsPerSecond();
+}
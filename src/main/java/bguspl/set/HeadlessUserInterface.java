@@ -0,0 +1,165 @@
+package bguspl.set;
+
+import java.util.Arrays;
+
+/**
+ * An implementation of the UserInterface interface that displays nothing, for running games without a screen.
+ * It keeps the players' scores and the winners, and can optionally record every call as a compact event.
+ */
+public class HeadlessUserInterface implements UserInterface {
+
+    /**
+     * The types of the recorded events (one per method of the UserInterface interface).
+     */
+    public static final int PLACE_CARD = 0, REMOVE_CARD = 1, SET_COUNTDOWN = 2, SET_ELAPSED = 3, SET_SCORE = 4,
+            SET_FREEZE = 5, PLACE_TOKEN = 6, REMOVE_TOKENS = 7, REMOVE_TOKEN = 8, ANNOUNCE_WINNER = 9;
+
+    /**
+     * True iff the calls should be recorded.
+     */
+    private final boolean record;
+
+    /**
+     * The recorded events, 2 longs per event: the type, player and slot/card packed in the first (see
+     * eventType, eventPlayer and eventSlot), and the value (milliseconds, score or card) in the second.
+     */
+    private long[] events;
+
+    /**
+     * The number of recorded events.
+     */
+    private int eventCount;
+
+    /**
+     * The current score of each player.
+     */
+    private final int[] scores;
+
+    /**
+     * The winners announced (null until the game is over).
+     */
+    private volatile int[] winners;
+
+    /**
+     * @param config - the game configuration.
+     * @param record - true iff the calls should be recorded (see events).
+     */
+    public HeadlessUserInterface(Config config, boolean record) {
+        this.record = record;
+        scores = new int[config.players];
+        events = record ? new long[1024] : null;
+    }
+
+    private synchronized void record(int type, int player, int slot, long value) {
+        if (2 * eventCount == events.length)
+            events = Arrays.copyOf(events, 2 * events.length);
+        events[2 * eventCount] = (long) type << 56 | (long) (player & 0xFFFFFF) << 32 | (slot & 0xFFFFFFFFL);
+        events[2 * eventCount + 1] = value;
+        ++eventCount;
+    }
+
+    @Override
+    public void placeCard(int card, int slot) {
+        if (record) record(PLACE_CARD, -1, slot, card);
+    }
+
+    @Override
+    public void removeCard(int slot) {
+        if (record) record(REMOVE_CARD, -1, slot, 0);
+    }
+
+    @Override
+    public void setCountdown(long millies, boolean warn) {
+        if (record) record(SET_COUNTDOWN, -1, warn ? 1 : 0, millies);
+    }
+
+    @Override
+    public void setElapsed(long millies) {
+        if (record) record(SET_ELAPSED, -1, -1, millies);
+    }
+
+    @Override
+    public void setScore(int player, int score) {
+        scores[player] = score;
+        if (record) record(SET_SCORE, player, -1, score);
+    }
+
+    @Override
+    public void setFreeze(int player, long millies) {
+        if (record) record(SET_FREEZE, player, -1, millies);
+    }
+
+    @Override
+    public void placeToken(int player, int slot) {
+        if (record) record(PLACE_TOKEN, player, slot, 0);
+    }
+
+    @Override
+    public void removeTokens() {
+        if (record) record(REMOVE_TOKENS, -1, -1, 0);
+    }
+
+    @Override
+    public void removeTokens(int slot) {
+        if (record) record(REMOVE_TOKENS, -1, slot, 0);
+    }
+
+    @Override
+    public void removeToken(int player, int slot) {
+        if (record) record(REMOVE_TOKEN, player, slot, 0);
+    }
+
+    @Override
+    public void announceWinner(int[] players) {
+        winners = players.clone();
+        if (record)
+            for (int player : players)
+                record(ANNOUNCE_WINNER, player, -1, scores[player]);
+    }
+
+    /**
+     * @param player - the player id.
+     * @return       - the last score shown for the player.
+     */
+    public int getScore(int player) {
+        return scores[player];
+    }
+
+    /**
+     * @return - the winners announced, or null if the game is not over.
+     */
+    public int[] getWinners() {
+        return winners;
+    }
+
+    /**
+     * @return - a copy of the recorded events (2 longs per event), empty if not recording.
+     */
+    public synchronized long[] getEvents() {
+        return record ? Arrays.copyOf(events, 2 * eventCount) : new long[0];
+    }
+
+    /**
+     * @param event - the first long of a recorded event.
+     * @return      - the event type (e.g. PLACE_CARD).
+     */
+    public static int eventType(long event) {
+        return (int) (event >>> 56);
+    }
+
+    /**
+     * @param event - the first long of a recorded event.
+     * @return      - the player of the event (-1 if none).
+     */
+    public static int eventPlayer(long event) {
+        return (int) (event << 8 >> 40);
+    }
+
+    /**
+     * @param event - the first long of a recorded event.
+     * @return      - the slot of the event (-1 if none).
+     */
+    public static int eventSlot(long event) {
+        return (int) event;
+    }
+}
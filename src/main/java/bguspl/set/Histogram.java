@@ -0,0 +1,146 @@
+package bguspl.set;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A histogram of non-negative values in log-linear buckets, in the manner of HdrHistogram: values below
+ * 2^SUB_BITS have a bucket each, and every power of 2 above that is split into 2^(SUB_BITS-1) buckets, so a
+ * percentile is within 1/32 (about 3%) of the true value over the whole range of a long. Recording is a few atomic
+ * increments, without locking or allocating, so it may be done on the game's hot paths by any thread.
+ * The statistics are read while values are being recorded, so they are consistent only to within the values
+ * recorded meanwhile (which is enough for watching a game live).
+ */
+public class Histogram implements HistogramMXBean {
+
+    /**
+     * The number of bits of precision of a bucket.
+     */
+    private static final int SUB_BITS = 6;
+
+    /**
+     * The number of buckets per power of 2 (above 2^SUB_BITS).
+     */
+    private static final int HALF = 1 << (SUB_BITS - 1);
+
+    /**
+     * The number of buckets (enough for any long).
+     */
+    private static final int BUCKETS = (64 - SUB_BITS) * HALF + 2 * HALF;
+
+    /**
+     * The unit of the values (for display only).
+     */
+    private final String unit;
+
+    /**
+     * The number of values recorded in each bucket.
+     */
+    private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+    /**
+     * The number, sum and maximum of the values recorded.
+     */
+    private final AtomicLong count = new AtomicLong(), sum = new AtomicLong(), max = new AtomicLong();
+
+    /**
+     * @param unit - the unit of the values (e.g. "ns").
+     */
+    public Histogram(String unit) {
+        this.unit = unit;
+    }
+
+    /**
+     * Records a value.
+     *
+     * @param value - the value (negative values are recorded as 0).
+     */
+    public void record(long value) {
+        if (value < 0) value = 0;
+        counts.incrementAndGet(bucket(value));
+        count.incrementAndGet();
+        sum.addAndGet(value);
+        long current = max.get();
+        while (value > current && !max.compareAndSet(current, value))
+            current = max.get();
+    }
+
+    /**
+     * @return - the bucket of a value.
+     */
+    static int bucket(long value) {
+        if (value < 2 * HALF)
+            return (int) value;
+        int shift = 64 - Long.numberOfLeadingZeros(value) - SUB_BITS;
+        return shift * HALF + (int) (value >>> shift);
+    }
+
+    /**
+     * @return - the highest value that falls in a bucket.
+     */
+    static long highestValue(int bucket) {
+        if (bucket < 2 * HALF)
+            return bucket;
+        int shift = bucket / HALF - 1;
+        long mantissa = bucket - (long) shift * HALF;
+        return ((mantissa + 1) << shift) - 1;
+    }
+
+    /**
+     * @param percentile - the percentile (0 to 100).
+     * @return           - the value at the percentile (0 if no values were recorded).
+     */
+    public long percentile(double percentile) {
+        long total = count.get();
+        if (total == 0) return 0;
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100 * total));
+        long seen = 0;
+        for (int bucket = 0; bucket < BUCKETS; ++bucket) {
+            seen += counts.get(bucket);
+            if (seen >= rank)
+                return Math.min(highestValue(bucket), max.get());
+        }
+        return max.get();
+    }
+
+    @Override
+    public String getUnit() {
+        return unit;
+    }
+
+    @Override
+    public long getCount() {
+        return count.get();
+    }
+
+    @Override
+    public double getMean() {
+        long total = count.get();
+        return total == 0 ? 0 : (double) sum.get() / total;
+    }
+
+    @Override
+    public long getMax() {
+        return max.get();
+    }
+
+    @Override
+    public long getP50() {
+        return percentile(50);
+    }
+
+    @Override
+    public long getP90() {
+        return percentile(90);
+    }
+
+    @Override
+    public long getP99() {
+        return percentile(99);
+    }
+
+    @Override
+    public long getP999() {
+        return percentile(99.9);
+    }
+}
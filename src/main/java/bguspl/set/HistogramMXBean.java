@@ -0,0 +1,47 @@
+package bguspl.set;
+
+/**
+ * The statistics of a Histogram, as seen through JMX.
+ */
+public interface HistogramMXBean {
+
+    /**
+     * @return - the unit of the values (e.g. "ns").
+     */
+    String getUnit();
+
+    /**
+     * @return - the number of values recorded.
+     */
+    long getCount();
+
+    /**
+     * @return - the mean of the values recorded.
+     */
+    double getMean();
+
+    /**
+     * @return - the largest value recorded.
+     */
+    long getMax();
+
+    /**
+     * @return - the median.
+     */
+    long getP50();
+
+    /**
+     * @return - the 90th percentile.
+     */
+    long getP90();
+
+    /**
+     * @return - the 99th percentile.
+     */
+    long getP99();
+
+    /**
+     * @return - the 99.9th percentile.
+     */
+    long getP999();
+}
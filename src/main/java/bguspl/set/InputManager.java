@@ -36,7 +36,7 @@ class InputManager extends KeyAdapter {
         int keyCode = e.getKeyCode();
         int player = keyMap[keyCode] - 1;
         if (player >= 0){
-            env.logger.log(Level.SEVERE, "Key " + keyCode + " was pressed by player " + player);
+            env.log.log(Level.SEVERE, GameLog.Event.KEY_PRESSED, player, keyCode);
             players[player].keyPressed(keyToSlot[keyCode]);
         }
     }
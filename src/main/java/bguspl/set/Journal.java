@@ -0,0 +1,182 @@
+package bguspl.set;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * An append-only binary journal of a game, written through memory-mapped chunks of the file, so recording an event
+ * is a few memory writes and never a system call (except for mapping the next chunk every 64K records).
+ * The journal starts with a header of HEADER_SIZE bytes (see open), followed by records of RECORD_SIZE bytes:
+ * the time in nanoseconds since the game started (8 bytes), the record type (1 byte), the slot (1 byte, -1 if none),
+ * the player (2 bytes, -1 if none) and a value (4 bytes, e.g. a card id or a score). A record type of 0 marks the
+ * end of the journal. The journal is read back by the ReplayEngine.
+ */
+public class Journal implements Closeable {
+
+    /**
+     * The record types.
+     */
+    public static final int DEAL = 1,              // a card was placed (value: the card)
+            REMOVE = 2,                            // a card was removed (value: the card)
+            TOKEN_PLACED = 3,                      // a player placed a token
+            TOKEN_REMOVED = 4,                     // a player removed a token
+            TOKENS_CLEARED = 5,                    // the tokens on a slot were removed (value: how many)
+            CLAIM_LEGAL = 6,                       // a claim was examined and is a set (value: the slots, see claimSlot)
+            CLAIM_ILLEGAL = 7,                     // a claim was examined and is not a set (value: the slots)
+            CLAIM_CANCELED = 8,                    // a claim was returned to its player without being examined
+            SCORE = 9,                             // a player's score changed (value: the score)
+            FREEZE = 10,                           // a player's freeze time display changed (value: milliseconds)
+            RESHUFFLE = 11,                        // the cards on the table are returned to the deck
+            WINNER = 12;                           // a player won (value: the score)
+
+    /**
+     * The first 4 bytes of a journal ("SETJ") and the version of the format.
+     */
+    static final int MAGIC = 0x5345544A, VERSION = 1;
+
+    /**
+     * The size of the header and of a record, in bytes.
+     */
+    public static final int HEADER_SIZE = 32, RECORD_SIZE = 16;
+
+    /**
+     * The size of the chunks of the file mapped at a time (a multiple of RECORD_SIZE).
+     */
+    private static final long CHUNK_SIZE = 1 << 20;
+
+    /**
+     * The most chunks a journal may have.
+     */
+    private static final int MAX_CHUNKS = 4096;
+
+    private final FileChannel channel;
+
+    /**
+     * The chunks of the file mapped so far (null if not mapped yet).
+     */
+    private final AtomicReferenceArray<MappedByteBuffer> chunks = new AtomicReferenceArray<>(MAX_CHUNKS);
+
+    /**
+     * The position of the next record in the file.
+     */
+    private final AtomicLong position = new AtomicLong(HEADER_SIZE);
+
+    /**
+     * The time source of the game, and its value when the game started.
+     */
+    private final Clock clock;
+    private final long start;
+
+    private Journal(FileChannel channel, Clock clock) {
+        this.channel = channel;
+        this.clock = clock;
+        start = clock.nanoTime();
+    }
+
+    /**
+     * Creates a journal file (replacing an existing file) and writes its header: the magic number, the version, the
+     * random seed (8 bytes), the number of players (4 bytes), and the rows, columns, feature size and feature count
+     * (2 bytes each).
+     *
+     * @param file   - the journal file.
+     * @param config - the game configuration.
+     * @param clock  - the time source of the game.
+     * @return       - the journal.
+     */
+    public static Journal open(Path file, Config config, Clock clock) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        Journal journal = new Journal(channel, clock);
+        MappedByteBuffer header = journal.chunk(0);
+        header.putInt(0, MAGIC);
+        header.putInt(4, VERSION);
+        header.putLong(8, config.randomSeed);
+        header.putInt(16, config.players);
+        header.putShort(20, (short) config.rows);
+        header.putShort(22, (short) config.columns);
+        header.putShort(24, (short) config.featureSize);
+        header.putShort(26, (short) config.featureCount);
+        return journal;
+    }
+
+    /**
+     * Appends a record (thread safe, without locking except when the next chunk is mapped).
+     *
+     * @param type   - the record type (e.g. DEAL).
+     * @param player - the player id (-1 if none).
+     * @param slot   - the slot (-1 if none).
+     * @param value  - the value of the record (depends on the type).
+     */
+    public void record(int type, int player, int slot, int value) {
+        long time = clock.nanoTime() - start;
+        long at = position.getAndAdd(RECORD_SIZE);
+        MappedByteBuffer chunk = chunk((int) (at / CHUNK_SIZE));
+        int offset = (int) (at % CHUNK_SIZE);
+        chunk.putLong(offset, time);
+        chunk.put(offset + 9, (byte) slot);
+        chunk.putShort(offset + 10, (short) player);
+        chunk.putInt(offset + 12, value);
+        chunk.put(offset + 8, (byte) type); // written last: a record with a type is complete
+    }
+
+    /**
+     * @param slot0 - the first slot of a claim.
+     * @param slot1 - the second slot of the claim.
+     * @param slot2 - the third slot of the claim.
+     * @return      - the value of a claim record (one byte per slot).
+     */
+    public static int claimValue(int slot0, int slot1, int slot2) {
+        return slot0 | slot1 << 8 | slot2 << 16;
+    }
+
+    /**
+     * @param value - the value of a claim record.
+     * @param i     - the index of the slot in the claim (0 to 2).
+     * @return      - the slot.
+     */
+    public static int claimSlot(int value, int i) {
+        return value >>> (8 * i) & 0xFF;
+    }
+
+    private MappedByteBuffer chunk(int index) {
+        MappedByteBuffer chunk = chunks.get(index);
+        if (chunk == null) {
+            synchronized (this) {
+                chunk = chunks.get(index);
+                if (chunk == null) {
+                    try {
+                        chunk = channel.map(FileChannel.MapMode.READ_WRITE, index * CHUNK_SIZE, CHUNK_SIZE);
+                    } catch (IOException e) {
+                        throw new RuntimeException("cannot map journal chunk " + index, e);
+                    }
+                    chunk.order(ByteOrder.LITTLE_ENDIAN);
+                    chunks.set(index, chunk);
+                }
+            }
+        }
+        return chunk;
+    }
+
+    /**
+     * Writes the records to the disk and cuts the file after the last record.
+     */
+    @Override
+    public void close() throws IOException {
+        long end = position.get();
+        for (int i = 0; i < MAX_CHUNKS && chunks.get(i) != null; ++i)
+            chunks.get(i).force();
+        try {
+            channel.truncate(end);
+        } catch (IOException ignored) {
+            // some systems do not allow cutting a mapped file, the end is then marked by a record type of 0
+        }
+        channel.close();
+    }
+}
@@ -3,11 +3,17 @@ package bguspl.set;
 import bguspl.set.ex.Dealer;
 import bguspl.set.ex.Player;
 import bguspl.set.ex.Table;
+import bguspl.set.net.BroadcastUserInterface;
+import bguspl.set.net.GameServer;
 
+import javax.management.JMException;
 import java.awt.*;
 import java.io.File;
 import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.file.Paths;
 import java.text.SimpleDateFormat;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.logging.*;
@@ -20,16 +26,32 @@ public class Main {
     /**
      * The game's main function. Creates all data structures and initializes the threads.
      *
-     * @param args - unused.
+     * @param args - --headless to run without a window, any other argument disables the log timestamps.
      */
     public static void main(String[] args) {
 
+        boolean headlessArg = Arrays.asList(args).contains("--headless");
+
         // create the game environment objects
-        Logger logger = initLogger(args.length > 0);
+        Logger logger = initLogger(args.length > (headlessArg ? 1 : 0));
         Config config = new Config(logger, "config.properties");
-        UserInterfaceImpl ui = new UserInterfaceImpl(logger, config);
-        EventQueue.invokeLater(() -> ui.setVisible(true));
-        Env env = new Env(logger, config, ui, new UtilImpl(config));
+        GameLog log = new GameLog(logger);
+        boolean headless = headlessArg || config.headless;
+        UserInterfaceImpl window = headless ? null : new UserInterfaceImpl(log, config);
+        GameMetrics metrics = new GameMetrics(config.players);
+        UserInterface local = headless ? new HeadlessUserInterface(config, false) : window;
+        GameServer server = config.remotePlayers > 0 ? new GameServer(config, log) : null;
+        UserInterface ui = new MeteredUserInterface(server != null ? new BroadcastUserInterface(local, server) : local, metrics);
+        if (window != null)
+            EventQueue.invokeLater(() -> window.setVisible(true));
+        Clock clock = headless && config.virtualClock && config.humanPlayers == 0 ? new VirtualClock() : new RealTimeClock();
+        Journal journal = openJournal(config, clock);
+        Env env = new Env(logger, config, ui, new UtilImpl(config), clock, log, journal, metrics);
+        try {
+            metrics.register();
+        } catch (JMException e) {
+            logger.log(Level.WARNING, "cannot register the game metrics with JMX", e);
+        }
 
         // create the game entities
         Player[] players = new Player[env.config.players];
@@ -37,19 +59,45 @@ public class Main {
         Dealer dealer = new Dealer(env, table, players);
         for (int i = 0; i < players.length; i++)
             players[i] = new Player(env, dealer, table, i, i < env.config.humanPlayers);
-        ui.addKeyListener(new InputManager(env, players));
-        ui.addWindowListener(new WindowManager(env, dealer));
-
-        // start the dealer thread
-        Thread dealerThread = new Thread(dealer, "dealer");
-        dealerThread.start();
+        if (window != null) {
+            window.addKeyListener(new InputManager(env, players));
+            window.addWindowListener(new WindowManager(env, dealer));
+        }
+        if (server != null) {
+            try {
+                server.start(new InetSocketAddress(config.serverPort), Arrays.copyOfRange(players,
+                        config.humanPlayers - config.remotePlayers, config.humanPlayers));
+            } catch (IOException e) {
+                throw new RuntimeException(e);
+            }
+        }
 
-        try {dealerThread.join();} catch (InterruptedException ignored) {}
-        env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " terminated.");
+        // play the game (the dealer and the players are actors on the shared pool, this thread only waits for them)
+        dealer.run();
+        if (server != null)
+            server.close();
+        env.log.log(Level.INFO, GameLog.Event.THREAD_TERMINATED);
+        env.log.close(); // writes the records left before the log file is closed
+        if (journal != null) {
+            try {
+                journal.close();
+            } catch (IOException e) {
+                env.logger.log(Level.SEVERE, "cannot close the journal " + config.journalFile, e);
+            }
+        }
         for(Handler h:env.logger.getHandlers())
             h.close();
     }
 
+    private static Journal openJournal(Config config, Clock clock) {
+        if (config.journalFile.isEmpty()) return null;
+        try {
+            return Journal.open(Paths.get(config.journalFile), config, clock);
+        } catch (IOException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
     private static Logger initLogger(boolean disableTimestamp) {
 
         FileHandler fh;
@@ -0,0 +1,88 @@
+package bguspl.set;
+
+import bguspl.set.GameMetrics.UiCall;
+
+/**
+ * A user interface that counts the calls of each method in the game's metrics and passes them on to another user
+ * interface.
+ */
+public class MeteredUserInterface implements UserInterface {
+
+    private final UserInterface ui;
+    private final GameMetrics metrics;
+
+    /**
+     * @param ui      - the user interface to pass the calls on to.
+     * @param metrics - the metrics of the game.
+     */
+    public MeteredUserInterface(UserInterface ui, GameMetrics metrics) {
+        this.ui = ui;
+        this.metrics = metrics;
+    }
+
+    @Override
+    public void placeCard(int card, int slot) {
+        metrics.uiCalled(UiCall.PLACE_CARD);
+        ui.placeCard(card, slot);
+    }
+
+    @Override
+    public void removeCard(int slot) {
+        metrics.uiCalled(UiCall.REMOVE_CARD);
+        ui.removeCard(slot);
+    }
+
+    @Override
+    public void setCountdown(long millies, boolean warn) {
+        metrics.uiCalled(UiCall.SET_COUNTDOWN);
+        ui.setCountdown(millies, warn);
+    }
+
+    @Override
+    public void setElapsed(long millies) {
+        metrics.uiCalled(UiCall.SET_ELAPSED);
+        ui.setElapsed(millies);
+    }
+
+    @Override
+    public void setScore(int player, int score) {
+        metrics.uiCalled(UiCall.SET_SCORE);
+        ui.setScore(player, score);
+    }
+
+    @Override
+    public void setFreeze(int player, long millies) {
+        metrics.uiCalled(UiCall.SET_FREEZE);
+        ui.setFreeze(player, millies);
+    }
+
+    @Override
+    public void placeToken(int player, int slot) {
+        metrics.uiCalled(UiCall.PLACE_TOKEN);
+        ui.placeToken(player, slot);
+    }
+
+    @Override
+    public void removeTokens() {
+        metrics.uiCalled(UiCall.REMOVE_TOKENS);
+        ui.removeTokens();
+    }
+
+    @Override
+    public void removeTokens(int slot) {
+        metrics.uiCalled(UiCall.REMOVE_SLOT_TOKENS);
+        ui.removeTokens(slot);
+    }
+
+    @Override
+    public void removeToken(int player, int slot) {
+        metrics.uiCalled(UiCall.REMOVE_TOKEN);
+        ui.removeToken(player, slot);
+    }
+
+    @Override
+    public void announceWinner(int[] players) {
+        metrics.uiCalled(UiCall.ANNOUNCE_WINNER);
+        ui.announceWinner(players);
+    }
+}
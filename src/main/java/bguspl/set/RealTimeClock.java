@@ -0,0 +1,45 @@
+package bguspl.set;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The implementation of the Clock interface for the real (wall-clock) time.
+ */
+public class RealTimeClock implements Clock {
+
+    /**
+     * The thread running the scheduled tasks, shared by all the games in the process (a single daemon thread).
+     */
+    private static final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(task -> {
+        Thread thread = new Thread(task, "clock-scheduler");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Override
+    public long currentTimeMillis() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public long nanoTime() {
+        return System.nanoTime();
+    }
+
+    @Override
+    public void schedule(Runnable task, long delayMillis) {
+        scheduler.schedule(task, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public void hold() {
+        // real time does not stand still
+    }
+
+    @Override
+    public void release() {
+        // real time does not stand still
+    }
+}
@@ -0,0 +1,206 @@
+package bguspl.set;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Logger;
+
+/**
+ * Replays a game journal (see Journal) on a user interface, in real time, N times faster, or as fast as possible.
+ * While replaying it checks the journal: every claim ruled legal must be a set of the cards on the table (and every
+ * claim ruled illegal must not), every score must count the legal claims of its player, and the winners must have
+ * the top score. A journal that fails a check is reported with an IllegalStateException.
+ */
+public class ReplayEngine {
+
+    /**
+     * The journal file mapped to memory.
+     */
+    private final MappedByteBuffer journal;
+
+    /**
+     * The configuration of the recorded game (from the journal header).
+     */
+    private final Config config;
+
+    /**
+     * The card in each slot of the table (-1 if none), as replayed so far.
+     */
+    private final int[] slotToCard;
+
+    /**
+     * The score of each player, counted from the legal claims replayed so far.
+     */
+    private final int[] scores;
+
+    /**
+     * @param file   - the journal file.
+     * @param logger - the logger of the replay.
+     */
+    public ReplayEngine(Path file, Logger logger) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            journal = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        journal.order(ByteOrder.LITTLE_ENDIAN);
+        if (journal.limit() < Journal.HEADER_SIZE || journal.getInt(0) != Journal.MAGIC)
+            throw new IllegalArgumentException(file + " is not a game journal");
+        if (journal.getInt(4) != Journal.VERSION)
+            throw new IllegalArgumentException(file + " has an unknown journal version " + journal.getInt(4));
+
+        Properties properties = new Properties();
+        properties.setProperty("RandomSeed", Long.toString(journal.getLong(8)));
+        properties.setProperty("HumanPlayers", "0");
+        properties.setProperty("ComputerPlayers", Integer.toString(journal.getInt(16)));
+        properties.setProperty("Rows", Short.toString(journal.getShort(20)));
+        properties.setProperty("Columns", Short.toString(journal.getShort(22)));
+        properties.setProperty("FeatureSize", Short.toString(journal.getShort(24)));
+        properties.setProperty("FeatureCount", Short.toString(journal.getShort(26)));
+        config = new Config(logger, properties);
+        slotToCard = new int[config.tableSize];
+        scores = new int[config.players];
+    }
+
+    /**
+     * @return - the configuration of the recorded game.
+     */
+    public Config getConfig() {
+        return config;
+    }
+
+    /**
+     * Replays the journal.
+     *
+     * @param ui    - the user interface to show the game on.
+     * @param util  - the utilities of the game, for checking the claims (null to skip checking the sets).
+     * @param speed - how many times faster than the recorded game to replay (0 or less for as fast as possible).
+     * @return      - the final score of each player.
+     * @throws IllegalStateException - if the journal fails a check.
+     */
+    public int[] replay(UserInterface ui, Util util, double speed) {
+        Arrays.fill(slotToCard, -1);
+        Arrays.fill(scores, 0);
+        int[] winners = new int[config.players];
+        int winnerCount = 0;
+        long start = System.nanoTime();
+
+        for (int at = Journal.HEADER_SIZE, record = 0; at + Journal.RECORD_SIZE <= journal.limit();
+             at += Journal.RECORD_SIZE, ++record) {
+            int type = journal.get(at + 8);
+            if (type == 0) break; // the end of the journal
+            long time = journal.getLong(at);
+            int slot = journal.get(at + 9);
+            int player = journal.getShort(at + 10);
+            int value = journal.getInt(at + 12);
+
+            if (speed > 0) {
+                long wait = start + (long) (time / speed) - System.nanoTime();
+                if (wait > 0)
+                    LockSupport.parkNanos(wait);
+            }
+
+            switch (type) {
+                case Journal.DEAL:
+                    slotToCard[slot] = value;
+                    ui.placeCard(value, slot);
+                    break;
+                case Journal.REMOVE:
+                    slotToCard[slot] = -1;
+                    ui.removeCard(slot);
+                    break;
+                case Journal.TOKEN_PLACED:
+                    ui.placeToken(player, slot);
+                    break;
+                case Journal.TOKEN_REMOVED:
+                    ui.removeToken(player, slot);
+                    break;
+                case Journal.TOKENS_CLEARED:
+                    ui.removeTokens(slot);
+                    break;
+                case Journal.CLAIM_LEGAL:
+                case Journal.CLAIM_ILLEGAL:
+                    boolean legal = type == Journal.CLAIM_LEGAL;
+                    if (util != null && util.testSet(card(value, 0, record), card(value, 1, record), card(value, 2, record)) != legal)
+                        fail(record, "player " + player + "'s claim was ruled " + (legal ? "legal" : "illegal"));
+                    if (legal)
+                        ++scores[player];
+                    break;
+                case Journal.SCORE:
+                    if (value != scores[player])
+                        fail(record, "player " + player + " has score " + value + " after " + scores[player] + " legal claims");
+                    ui.setScore(player, value);
+                    break;
+                case Journal.FREEZE:
+                    ui.setFreeze(player, value);
+                    break;
+                case Journal.WINNER:
+                    if (value != scores[player])
+                        fail(record, "winner " + player + " has score " + value + " after " + scores[player] + " legal claims");
+                    winners[winnerCount++] = player;
+                    break;
+                case Journal.CLAIM_CANCELED:
+                case Journal.RESHUFFLE:
+                    break;
+                default:
+                    fail(record, "unknown record type " + type);
+            }
+        }
+
+        if (winnerCount > 0) {
+            int best = Arrays.stream(scores).max().orElse(0);
+            for (int i = 0; i < winnerCount; ++i)
+                if (scores[winners[i]] != best)
+                    fail(-1, "winner " + winners[i] + " does not have the top score " + best);
+            ui.announceWinner(Arrays.copyOf(winners, winnerCount));
+        }
+        return scores.clone();
+    }
+
+    private int card(int claim, int i, int record) {
+        int card = slotToCard[Journal.claimSlot(claim, i)];
+        if (card < 0)
+            fail(record, "a claim includes the empty slot " + Journal.claimSlot(claim, i));
+        return card;
+    }
+
+    private static void fail(int record, String message) {
+        throw new IllegalStateException((record >= 0 ? "journal record " + record + ": " : "journal: ") + message);
+    }
+
+    /**
+     * Replays a journal and prints the final scores.
+     *
+     * @param args - the journal file, the speed (default 1, 0 for as fast as possible), and --window to show the
+     *             replay in a window.
+     */
+    public static void main(String[] args) throws IOException {
+        boolean window = Arrays.asList(args).contains("--window");
+        args = Arrays.stream(args).filter(arg -> !arg.equals("--window")).toArray(String[]::new);
+        Path file = Paths.get(args[0]);
+        double speed = args.length > 1 ? Double.parseDouble(args[1]) : 1;
+
+        Logger logger = Logger.getLogger("SetReplayLogger");
+        ReplayEngine engine = new ReplayEngine(file, logger);
+        Config config = engine.getConfig();
+        UserInterface ui;
+        if (window) {
+            UserInterfaceImpl impl = new UserInterfaceImpl(logger, config);
+            java.awt.EventQueue.invokeLater(() -> impl.setVisible(true));
+            ui = impl;
+        } else {
+            ui = new HeadlessUserInterface(config, false);
+        }
+
+        long start = System.nanoTime();
+        int[] scores = engine.replay(ui, new UtilImpl(config), speed);
+        System.out.printf("replayed %s in %d ms, final scores %s%n", file,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start), Arrays.toString(scores));
+    }
+}
@@ -0,0 +1,197 @@
+package bguspl.set;
+
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.PrintWriter;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * This class runs batches of games between computer players only, without a window, in parallel. The games are
+ * actors on the shared ActorPool (sized to the available cores), and the runner only keeps a bounded number of them
+ * in play at once (see MAX_GAMES_IN_PLAY). By default every game runs on its own virtual clock, so the configured
+ * delays, freezes and timeouts keep their meaning without being waited for; in real time all the delays are zeroed
+ * instead. The result of every game is written to a CSV file as soon as the game is over, and the throughput of the
+ * whole batch is reported at the end.
+ */
+public class SimulationRunner {
+
+    /**
+     * The most games in play at once, enough to keep the workers of the shared pool busy while the finished games
+     * are written out.
+     */
+    private static final int MAX_GAMES_IN_PLAY = 4 * Runtime.getRuntime().availableProcessors();
+
+    /**
+     * The configuration properties of the simulated games.
+     */
+    private final Properties properties;
+
+    /**
+     * The seed of the first game (game i is dealt with seed + i).
+     */
+    private final long seed;
+
+    /**
+     * True iff the games run on virtual clocks (otherwise they run in real time).
+     */
+    private final boolean virtualClock;
+
+    /**
+     * The log of the simulated games (warnings and above only).
+     */
+    private final Logger logger;
+
+    /**
+     * The asynchronous log shared by the simulated games.
+     */
+    private final GameLog log;
+
+    /**
+     * The number of games over so far.
+     */
+    private final AtomicInteger gamesOver = new AtomicInteger();
+
+    /**
+     * The number of claims examined in all the games so far.
+     */
+    private final AtomicInteger claims = new AtomicInteger();
+
+    /**
+     * @param properties   - the configuration properties of the games (delays and human players are overridden).
+     * @param players      - the number of computer players in each game.
+     * @param virtualClock - true iff the games should run on virtual clocks (otherwise delays are zeroed).
+     */
+    public SimulationRunner(Properties properties, int players, boolean virtualClock) {
+        this.properties = new Properties();
+        this.properties.putAll(properties);
+        this.properties.setProperty("HumanPlayers", "0");
+        this.properties.setProperty("ComputerPlayers", Integer.toString(players));
+        this.properties.setProperty("Headless", "True");
+        this.properties.setProperty("VirtualClock", Boolean.toString(virtualClock));
+        if (!virtualClock)
+            for (String delay : new String[]{"TableDelaySeconds", "ComputerDelaySeconds", "ComputerReactionSeconds",
+                    "ComputerKeyDelaySeconds", "PointFreezeSeconds", "PenaltyFreezeSeconds"})
+                this.properties.setProperty(delay, "0");
+        this.virtualClock = virtualClock;
+        String seed = properties.getProperty("RandomSeed", "").trim();
+        this.seed = seed.isEmpty() ? System.nanoTime() : Long.parseLong(seed);
+
+        logger = Logger.getLogger("SetSimulationLogger");
+        logger.setLevel(Level.WARNING);
+        log = new GameLog(logger);
+    }
+
+    /**
+     * Starts a single game, and reports its result once it is over.
+     *
+     * @param game     - the number of the game in the batch.
+     * @param finished - called with the result of the game as a CSV line once it is over (on a worker thread).
+     */
+    void play(int game, Consumer<String> finished) {
+        Properties gameProperties = new Properties();
+        gameProperties.putAll(properties);
+        gameProperties.setProperty("RandomSeed", Long.toString(seed + game));
+        Config config = new Config(logger, gameProperties);
+        HeadlessUserInterface ui = new HeadlessUserInterface(config, false);
+        Clock clock = virtualClock ? new VirtualClock() : new RealTimeClock();
+        long gameStart = clock.currentTimeMillis();
+        Env env = new Env(logger, config, ui, new UtilImpl(config), clock, log);
+
+        Player[] players = new Player[config.players];
+        Table table = new Table(env);
+        Dealer dealer = new Dealer(env, table, players);
+        for (int i = 0; i < players.length; i++)
+            players[i] = new Player(env, dealer, table, i, false);
+
+        long start = System.nanoTime();
+        dealer.start(() -> {
+            long duration = System.nanoTime() - start;
+            long gameDuration = clock.currentTimeMillis() - gameStart;
+            int[] scores = new int[players.length];
+            Arrays.setAll(scores, i -> players[i].getScore());
+            gamesOver.incrementAndGet();
+            claims.addAndGet(dealer.getClaimCount());
+            finished.accept(game + "," + config.randomSeed + "," + join(ui.getWinners()) + "," + join(scores) + ","
+                    + dealer.getClaimCount() + "," + dealer.getSetCount() + ","
+                    + TimeUnit.NANOSECONDS.toMillis(duration) + "," + gameDuration);
+        });
+    }
+
+    private static String join(int[] values) {
+        StringBuilder sb = new StringBuilder();
+        for (int value : values)
+            sb.append(sb.length() == 0 ? "" : " ").append(value);
+        return sb.toString();
+    }
+
+    /**
+     * Plays a batch of games in parallel, writing the result of each game to out as it ends.
+     *
+     * @param games - the number of games to play.
+     * @param out   - the writer of the results.
+     */
+    public void run(int games, PrintWriter out) throws InterruptedException {
+        out.println("game,seed,winners,scores,claims,sets,durationMillis,gameMillis");
+        Semaphore inPlay = new Semaphore(MAX_GAMES_IN_PLAY);
+        CountDownLatch over = new CountDownLatch(games);
+        for (int i = 0; i < games; i++) {
+            inPlay.acquire();
+            play(i, result -> {
+                synchronized (out) {
+                    out.println(result);
+                    out.flush();
+                }
+                inPlay.release();
+                over.countDown();
+            });
+        }
+        over.await();
+        log.close();
+    }
+
+    /**
+     * Runs a batch of simulated games.
+     *
+     * @param args - the number of games (default 100), the number of computer players per game (default 2), the
+     *             results file (default simulation.csv) and the configuration file (default config.properties).
+     *             --real-time (anywhere) runs the games in real time with all delays zeroed.
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        boolean realTime = Arrays.asList(args).contains("--real-time");
+        args = Arrays.stream(args).filter(arg -> !arg.equals("--real-time")).toArray(String[]::new);
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 2;
+        String results = args.length > 2 ? args[2] : "simulation.csv";
+        String configFilename = args.length > 3 ? args[3] : "config.properties";
+
+        Properties properties = new Properties();
+        if (Files.exists(Paths.get(configFilename)))
+            try (InputStream is = Files.newInputStream(Paths.get(configFilename))) {
+                properties.load(is);
+            }
+
+        SimulationRunner runner = new SimulationRunner(properties, players, !realTime);
+        long start = System.nanoTime();
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(results)))) {
+            runner.run(games, out);
+        }
+        double seconds = (System.nanoTime() - start) / 1e9;
+        System.out.printf("%d games in %.2f seconds: %.2f games/sec, %.1f claims per game (results in %s)%n",
+                runner.gamesOver.get(), seconds, runner.gamesOver.get() / seconds,
+                (double) runner.claims.get() / Math.max(1, runner.gamesOver.get()), results);
+    }
+}
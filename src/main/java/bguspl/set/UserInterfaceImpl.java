@@ -2,9 +2,12 @@ package bguspl.set;
 
 import javax.swing.*;
 import java.awt.*;
-import java.io.FileNotFoundException;
-import java.net.URL;
 import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -12,14 +15,74 @@ import static java.lang.String.format;
 
 /**
  * Java Swing implementation of the UserInterface interface.
+ * The game threads do not touch Swing: their calls only update the pending state of the display (without locking),
+ * and the event dispatch thread draws the changes once per frame. Only the latest state is drawn, so repeated
+ * updates between frames (e.g. countdown ticks, or a card removed and replaced) cost a single redraw, and only the
+ * cells of the cards that changed are repainted.
  */
 public class UserInterfaceImpl extends JFrame implements UserInterface {
 
+    /**
+     * The number of milliseconds between frames.
+     */
+    private static final int FRAME_MILLIS = 16;
+
+    /**
+     * The modes of the timer display (the low 2 bits of the pending timer).
+     */
+    private static final int COUNTDOWN = 0, WARN = 1, ELAPSED = 2;
+
+    /**
+     * The flags of the pending changes that are not per slot.
+     */
+    private static final int TIMER_CHANGED = 1, PLAYERS_CHANGED = 2, WINNERS_CHANGED = 4;
+
+    /**
+     * The card to show in each slot (-1 if none).
+     */
+    private final AtomicIntegerArray slotCards;
+
+    /**
+     * The players with tokens on each slot, one bit per player (playerWords longs per slot).
+     */
+    private final AtomicLongArray slotTokens;
+
+    /**
+     * The number of longs per slot in slotTokens.
+     */
+    private final int playerWords;
+
+    /**
+     * The slots whose card or tokens changed since the last frame, one bit per slot.
+     */
+    private final AtomicLong changedCards = new AtomicLong(), changedTokens = new AtomicLong();
+
+    /**
+     * The time to show, in milliseconds shifted left by 2, with the mode of the display in the low 2 bits.
+     */
+    private final AtomicLong timer = new AtomicLong();
+
+    /**
+     * The score and the freeze time to show for each player.
+     */
+    private final AtomicIntegerArray scores;
+    private final AtomicLongArray freezes;
+
+    /**
+     * The winners to announce (null until the game is over).
+     */
+    private final AtomicReference<int[]> winners = new AtomicReference<>();
+
+    /**
+     * The changes since the last frame that are not per slot (see TIMER_CHANGED etc.).
+     */
+    private final AtomicInteger changed = new AtomicInteger();
+
     private final TimerPanel timerPanel;
     private final GamePanel gamePanel;
     private final PlayersPanel playersPanel;
     private final WinnerPanel winnerPanel;
-    private final Logger logger;
+    private final GameLog log;
     private final Config config;
 
     static String intInBaseToPaddedString(int n, int padding, int base) {
@@ -27,9 +90,22 @@ public class UserInterfaceImpl extends JFrame implements UserInterface {
     }
 
     public UserInterfaceImpl(Logger logger, Config config) {
+        this(new GameLog(logger), config);
+    }
+
+    public UserInterfaceImpl(GameLog log, Config config) {
 
-        this.logger = logger;
+        this.log = log;
         this.config = config;
+        if (config.tableSize > Long.SIZE)
+            throw new IllegalArgumentException("table size " + config.tableSize + " is over " + Long.SIZE);
+        slotCards = new AtomicIntegerArray(config.tableSize);
+        for (int slot = 0; slot < config.tableSize; ++slot)
+            slotCards.set(slot, -1);
+        playerWords = (config.players + Long.SIZE - 1) / Long.SIZE;
+        slotTokens = new AtomicLongArray(config.tableSize * playerWords);
+        scores = new AtomicIntegerArray(config.players);
+        freezes = new AtomicLongArray(config.players);
         timerPanel = new TimerPanel();
         gamePanel = new GamePanel();
         playersPanel = new PlayersPanel();
@@ -61,6 +137,45 @@ public class UserInterfaceImpl extends JFrame implements UserInterface {
         setTitle("Set Card Game");
         setLocationRelativeTo(null);
         setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+        new Timer(FRAME_MILLIS, e -> drawFrame()).start();
+    }
+
+    /**
+     * Draws the changes since the last frame (runs on the event dispatch thread).
+     */
+    private void drawFrame() {
+        for (long slots = changedCards.getAndSet(0); slots != 0; slots &= slots - 1) {
+            int slot = Long.numberOfTrailingZeros(slots);
+            gamePanel.showCard(slot, slotCards.get(slot));
+        }
+        for (long slots = changedTokens.getAndSet(0); slots != 0; slots &= slots - 1)
+            gamePanel.showTokens(Long.numberOfTrailingZeros(slots));
+
+        int flags = changed.getAndSet(0);
+        if ((flags & TIMER_CHANGED) != 0) {
+            long value = timer.get();
+            int mode = (int) (value & 3);
+            if (mode == ELAPSED)
+                timerPanel.setElapsed(value >> 2);
+            else
+                timerPanel.setCountdown(value >> 2, mode == WARN);
+        }
+        if ((flags & PLAYERS_CHANGED) != 0)
+            playersPanel.showPlayers();
+        if ((flags & WINNERS_CHANGED) != 0) {
+            playersPanel.setVisible(false);
+            winnerPanel.announceWinner(winners.get());
+            winnerPanel.setVisible(true);
+        }
+    }
+
+    private void markChanged(AtomicLong slots, int slot) {
+        slots.getAndAccumulate(1L << slot, (mask, bit) -> mask | bit);
+    }
+
+    private void markChanged(int flag) {
+        changed.getAndAccumulate(flag, (flags, bit) -> flags | bit);
     }
 
     private class TimerPanel extends JPanel {
@@ -96,35 +211,23 @@ public class UserInterfaceImpl extends JFrame implements UserInterface {
 
     private class GamePanel extends JLayeredPane {
 
-        private final Image emptyCard;
-        private final Image[] deck;
+        private final CardImages deck;
         private final Image[][] grid;
-        private final boolean[][][] playerTokens;
+        private final long[] shownTokens;
         private final JLabel[][] tokenText;
 
-        private Image loadImageResource(String filename) {
-            URL imageResource = getClass().getClassLoader().getResource(filename);
-            if (imageResource == null)
-                throw new RuntimeException(new FileNotFoundException(filename));
-            return new ImageIcon(imageResource).getImage();
-        }
-
         private GamePanel() {
 
             setPreferredSize(new Dimension(config.columns * config.cellWidth, config.rows * config.cellHeight));
 
-            // init deck and load all pictures from png files
+            // the card images are shared by all the windows, and are loaded in the background
             assert config.featureSize < 10; // otherwise there will be naming conflicts
-
-            // load the image resources
-            deck = new Image[config.deckSize];
-            for (int i = 0; i < config.deckSize; ++i)
-                deck[i] = loadImageResource("cards/" + intInBaseToPaddedString(i, config.featureCount, config.featureSize) + ".png");
-            emptyCard = loadImageResource("cards/empty_card.png");
+            deck = CardImages.get(config);
+            Image emptyCard = deck.emptyCard();
 
             grid = new Image[config.rows][config.columns];
             tokenText = new JLabel[config.rows][config.columns];
-            playerTokens = new boolean[config.players][config.rows][config.columns];
+            shownTokens = new long[config.tableSize * playerWords];
             for (int row = 0; row < config.rows; row++) {
                 for (int column = 0; column < config.columns; column++) {
                     // init the cards on the table grid as empty cards
@@ -142,65 +245,32 @@ public class UserInterfaceImpl extends JFrame implements UserInterface {
             }
         }
 
-        private void placeCard(int slot, int card) {
-            logger.log(Level.SEVERE, "placing card " + card + " in slot " + slot);
+        private void showCard(int slot, int card) {
             int row = slot / config.columns;
             int column = slot % config.columns;
-            grid[row][column] = deck[card];
-            validate();
-            repaint();
+            grid[row][column] = card < 0 ? deck.emptyCard() : deck.card(card);
+            repaint(column * config.cellWidth, row * config.cellHeight, config.cellWidth, config.cellHeight);
         }
 
-        private void removeCard(int slot) {
-            logger.log(Level.SEVERE, "removing card from slot " + slot);
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            grid[row][column] = emptyCard;
-            validate();
-            repaint();
-        }
-
-        private void placeToken(int player, int slot) {
-            logger.log(Level.SEVERE, "player " + player + " placing token on slot " + slot);
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            playerTokens[player][row][column] = true;
-            tokenText[row][column].setText(generatePlayersTokenText(row, column));
-        }
-
-        private void removeTokens() {
-            logger.log(Level.SEVERE, "removing all tokens");
-            for (int i = 0; i < config.tableSize; i++)
-                removeTokens(i);
-        }
-
-        private void removeTokens(int slot) {
-            logger.log(Level.SEVERE, "removing tokens from slot " + slot);
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            for (int player = 0; player < playerTokens.length; player++) {
-                playerTokens[player][row][column] = false;
-                tokenText[row][column].setText(generatePlayersTokenText(row, column));
+        private void showTokens(int slot) {
+            boolean same = true;
+            for (int word = 0; word < playerWords; ++word) {
+                long tokens = slotTokens.get(slot * playerWords + word);
+                same &= tokens == shownTokens[slot * playerWords + word];
+                shownTokens[slot * playerWords + word] = tokens;
             }
+            if (!same)
+                tokenText[slot / config.columns][slot % config.columns].setText(generatePlayersTokenText(slot));
         }
 
-        private void removeToken(int player, int slot) {
-            logger.log(Level.SEVERE, "removing player " + player + " token from slot " + slot);
-            int row = slot / config.columns;
-            int column = slot % config.columns;
-            playerTokens[player][row][column] = false;
-            tokenText[row][column].setText(generatePlayersTokenText(row, column));
-        }
-
-        private String generatePlayersTokenText(int row, int column) {
-            String text = "";
-            for (int player = 0; player < config.players; player++) {
-                if (playerTokens[player][row][column])
-                    text = text.concat(config.playerNames[player] + ", ");
-            }
-            if (text.length() < 2)
-                return "";
-            return text.substring(0, text.length() - 2);
+        private String generatePlayersTokenText(int slot) {
+            StringBuilder text = new StringBuilder();
+            for (int word = 0; word < playerWords; ++word)
+                for (long tokens = shownTokens[slot * playerWords + word]; tokens != 0; tokens &= tokens - 1) {
+                    int player = word * Long.SIZE + Long.numberOfTrailingZeros(tokens);
+                    text.append(text.length() == 0 ? "" : ", ").append(config.playerNames[player]);
+                }
+            return text.toString();
         }
 
         @Override
@@ -216,6 +286,8 @@ public class UserInterfaceImpl extends JFrame implements UserInterface {
     private class PlayersPanel extends JPanel {
 
         private final JLabel[][] playersTable;
+        private final int[] shownScores = new int[config.players];
+        private final long[] shownFreezes = new long[config.players];
 
         private PlayersPanel() {
             this.setLayout(new GridLayout(2, config.players));
@@ -236,13 +308,21 @@ public class UserInterfaceImpl extends JFrame implements UserInterface {
             }
         }
 
-        private void setScore(int player, int score) {
-            logger.log(Level.SEVERE, "setting player " + player + " score to " + score);
-            playersTable[1][player].setText(Integer.toString(score));
+        private void showPlayers() {
+            for (int player = 0; player < config.players; ++player) {
+                int score = scores.get(player);
+                if (score != shownScores[player]) {
+                    shownScores[player] = score;
+                    playersTable[1][player].setText(Integer.toString(score));
+                }
+                long millies = freezes.get(player);
+                if (millies / 1000 != shownFreezes[player] / 1000 || (millies > 0) != (shownFreezes[player] > 0))
+                    setFreeze(player, millies);
+                shownFreezes[player] = millies;
+            }
         }
 
         private void setFreeze(int player, long millies) {
-            logger.log(Level.SEVERE, "setting player " + player + " freeze to " + millies);
             if (millies > 0) {
                 this.playersTable[0][player].setText(config.playerNames[player] + " (" + millies / 1000 + ")");
                 this.playersTable[0][player].setForeground(Color.RED);
@@ -268,7 +348,6 @@ public class UserInterfaceImpl extends JFrame implements UserInterface {
         }
 
         private void announceWinner(int[] players) {
-            logger.log(Level.SEVERE, "announcing winners: " + Arrays.toString(players));
             if (players.length == 1)
                 winnerAnnouncement.setText("THE WINNER IS: " + config.playerNames[players[0]] + "!!!");
             else {
@@ -283,56 +362,76 @@ public class UserInterfaceImpl extends JFrame implements UserInterface {
 
     @Override
     public void placeCard(int card, int slot) {
-        gamePanel.placeCard(slot, card);
+        log.log(Level.SEVERE, GameLog.Event.PLACE_CARD, card, slot);
+        slotCards.set(slot, card);
+        markChanged(changedCards, slot);
     }
 
     @Override
     public void removeCard(int slot) {
-        gamePanel.removeCard(slot);
+        log.log(Level.SEVERE, GameLog.Event.REMOVE_CARD, 0, slot);
+        slotCards.set(slot, -1);
+        markChanged(changedCards, slot);
     }
 
     public void setCountdown(long millies, boolean warn) {
-        timerPanel.setCountdown(millies, warn);
+        timer.set(millies << 2 | (warn ? WARN : COUNTDOWN));
+        markChanged(TIMER_CHANGED);
     }
 
     public void setElapsed(long millies) {
-        timerPanel.setElapsed(millies);
+        timer.set(millies << 2 | ELAPSED);
+        markChanged(TIMER_CHANGED);
     }
 
     @Override
     public void setScore(int player, int score) {
-        playersPanel.setScore(player, score);
+        log.log(Level.SEVERE, GameLog.Event.SET_SCORE, player, score);
+        scores.set(player, score);
+        markChanged(PLAYERS_CHANGED);
     }
 
     @Override
     public void setFreeze(int player, long millies) {
-        playersPanel.setFreeze(player, millies);
+        log.log(Level.SEVERE, GameLog.Event.SET_FREEZE, player, millies);
+        freezes.set(player, millies);
+        markChanged(PLAYERS_CHANGED);
     }
 
     @Override
     public void placeToken(int player, int slot) {
-        gamePanel.placeToken(player, slot);
+        log.log(Level.SEVERE, GameLog.Event.PLACE_TOKEN, player, slot);
+        slotTokens.getAndAccumulate(slot * playerWords + player / Long.SIZE, 1L << player, (tokens, bit) -> tokens | bit);
+        markChanged(changedTokens, slot);
     }
 
     @Override
     public void removeTokens() {
-        gamePanel.removeTokens();
+        log.log(Level.SEVERE, GameLog.Event.REMOVE_TOKENS);
+        for (int i = 0; i < config.tableSize; i++)
+            removeTokens(i);
     }
 
     @Override
     public void removeTokens(int slot) {
-        gamePanel.removeTokens(slot);
+        log.log(Level.SEVERE, GameLog.Event.REMOVE_SLOT_TOKENS, 0, slot);
+        for (int word = 0; word < playerWords; ++word)
+            slotTokens.set(slot * playerWords + word, 0);
+        markChanged(changedTokens, slot);
     }
 
     @Override
     public void removeToken(int player, int slot) {
-        gamePanel.removeToken(player, slot);
+        log.log(Level.SEVERE, GameLog.Event.REMOVE_TOKEN, player, slot);
+        slotTokens.getAndAccumulate(slot * playerWords + player / Long.SIZE, ~(1L << player), (tokens, mask) -> tokens & mask);
+        markChanged(changedTokens, slot);
     }
 
     @Override
     public void announceWinner(int[] players) {
-        playersPanel.setVisible(false);
-        winnerPanel.announceWinner(players);
-        winnerPanel.setVisible(true);
+        if (log.isLoggable(Level.SEVERE))
+            log.log(Level.SEVERE, "announcing winners: " + Arrays.toString(players));
+        winners.set(players.clone());
+        markChanged(WINNERS_CHANGED);
     }
 }
@@ -28,6 +28,23 @@ public interface Util {
      */
     boolean testSet(int[] cards);
 
+    /**
+     * Checks if three cards form a legal set, without allocating.
+     * @param a - the first card id.
+     * @param b - the second card id.
+     * @param c - the third card id.
+     * @return  - true iff the cards form a legal set.
+     */
+    boolean testSet(int a, int b, int c);
+
+    /**
+     * Checks a batch of card triples (see testSet(int, int, int)).
+     * @param triples - the card ids, 3 per triple.
+     * @param out     - receives true at index i iff triple i forms a legal set.
+     * @return        - the number of legal sets in the batch.
+     */
+    int testSets(int[] triples, boolean[] out);
+
     /**
      * Finds and returns up to count sets in the given collection of cards.
      * @param deck  - a collection of cards (may not include null objects).
@@ -35,4 +52,39 @@ public interface Util {
      * @return      - a list of up to count integer arrays, each one contains the card ids of a legal set.
      */
     List<int[]> findSets(List<Integer> deck, int count);
+
+    /**
+     * Computes the only card that forms a legal set together with the two given cards.
+     * Note: this is only well-defined when config.featureSize == 3 (i.e. sets of 3 cards).
+     * @param a - the first card id.
+     * @param b - the second card id.
+     * @return  - the id of the card completing a and b to a legal set.
+     */
+    int completeSet(int a, int b);
+
+    /**
+     * Finds up to count sets in the first size cards of the given array, without allocating on the hot path.
+     * @param cards - an array of distinct card ids.
+     * @param size  - the number of cards to consider (cards[0] to cards[size - 1]).
+     * @param sets  - the output array, receives config.featureSize card ids per set found.
+     * @param count - the maximum number of sets to find.
+     * @return      - the number of sets written to sets.
+     */
+    int findSets(int[] cards, int size, int[] sets, int count);
+
+    /**
+     * Counts the sets in the first size cards of the given array.
+     * @param cards - an array of distinct card ids.
+     * @param size  - the number of cards to consider (cards[0] to cards[size - 1]).
+     * @return      - the number of legal sets.
+     */
+    int countSets(int[] cards, int size);
+
+    /**
+     * Checks if the first size cards of the given array contain at least one legal set.
+     * @param cards - an array of distinct card ids.
+     * @param size  - the number of cards to consider (cards[0] to cards[size - 1]).
+     * @return      - true iff there is a legal set.
+     */
+    boolean hasSet(int[] cards, int size);
 }
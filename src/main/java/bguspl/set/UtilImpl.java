@@ -10,10 +10,42 @@ import java.util.stream.IntStream;
  */
 public class UtilImpl implements Util {
 
+    /**
+     * The largest deck whose cards are packed (3^10 cards, under half a megabyte). Larger decks test sets on the
+     * features of the cards instead, rather than every instance holding a table of millions of cards.
+     */
+    private static final int MAX_PACKED_CARDS = 59_049;
+
     private final Config config;
 
+    /**
+     * A per-thread presence bitmap over card ids, reused by the set finders to avoid allocating.
+     */
+    private final ThreadLocal<long[]> present;
+
+    /**
+     * The features of every card packed into a long, featureSize bits per feature with exactly one bit set
+     * (the bit of the feature value). Null if the cards do not fit, the deck is larger than MAX_PACKED_CARDS or sets
+     * are not of 3 cards.
+     */
+    private final long[] packed;
+
     public UtilImpl(Config config) {
         this.config = config;
+        present = ThreadLocal.withInitial(() -> new long[(config.deckSize + 63) >>> 6]);
+        packed = config.featureSize == 3 && config.featureCount * config.featureSize <= Long.SIZE
+                && config.deckSize <= MAX_PACKED_CARDS ? packCards() : null;
+    }
+
+    private long[] packCards() {
+        long[] cards = new long[config.deckSize];
+        int[] features = new int[config.featureCount];
+        for (int card = 0; card < cards.length; ++card) {
+            cardToFeatures(card, features);
+            for (int i = 0; i < features.length; ++i)
+                cards[card] |= 1L << (i * config.featureSize + features[i]);
+        }
+        return cards;
     }
 
     private void cardToFeatures(int card, int[] features) {
@@ -39,6 +71,9 @@ public class UtilImpl implements Util {
 
     @Override
     public boolean testSet(int[] cards) {
+        if (packed != null && cards.length == 3)
+            return testSet(cards[0], cards[1], cards[2]);
+
         int[][] features = cardsToFeatures(Arrays.copyOf(cards, cards.length));
         for (int i = 0; i < config.featureCount; ++i) {
             boolean sameSame = true, butDifferent = true;
@@ -63,29 +98,148 @@ public class UtilImpl implements Util {
         return true;
     }
 
+    @Override
+    public boolean testSet(int a, int b, int c) {
+        if (packed == null)
+            return testSet(new int[]{a, b, c});
+
+        // per feature, the xor of three one-hot values equals their or iff they are all the same or all different
+        long x = packed[a], y = packed[b], z = packed[c];
+        return (x ^ y ^ z) == (x | y | z);
+    }
+
+    @Override
+    public int testSets(int[] triples, boolean[] out) {
+        int legal = 0;
+        for (int i = 0; i < out.length; ++i)
+            if (out[i] = testSet(triples[3 * i], triples[3 * i + 1], triples[3 * i + 2]))
+                ++legal;
+        return legal;
+    }
+
     @Override
     public List<int[]> findSets(List<Integer> deck, int count) {
+        int[] cards = new int[deck.size()];
+        for (int i = 0; i < cards.length; ++i)
+            cards[i] = deck.get(i);
+
+        int r = config.featureSize;
+        // with 3 cards per set a pair of cards is in at most one set, so there are at most n * (n - 1) / 6 sets;
+        // with more cards per set the output grows until it holds every set asked for
+        long bound = (long) cards.length * (cards.length - 1) / (r == 3 ? 6 : 2);
+        int capacity = (int) Math.min(count, Math.max(1, bound));
+        int[] found = new int[capacity * r];
+        int n = findSets(cards, cards.length, found, capacity);
+        while (r != 3 && n == capacity && capacity < count) {
+            capacity = (int) Math.min(count, 2L * capacity);
+            found = new int[capacity * r];
+            n = findSets(cards, cards.length, found, capacity);
+        }
+
         LinkedList<int[]> sets = new LinkedList<>();
-        int n = deck.size();
+        for (int i = 0; i < n; ++i) {
+            int[] set = Arrays.copyOfRange(found, i * r, (i + 1) * r);
+            Arrays.sort(set);
+            sets.add(set);
+        }
+        return sets;
+    }
+
+    @Override
+    public int completeSet(int a, int b) {
+        int size = config.featureSize;
+        int c = 0;
+        for (int i = 0, weight = 1; i < config.featureCount; ++i, weight *= size) {
+            // the completing feature value is (-(a + b)) mod featureSize
+            c += ((2 * size - a % size - b % size) % size) * weight;
+            a /= size;
+            b /= size;
+        }
+        return c;
+    }
+
+    @Override
+    public int findSets(int[] cards, int size, int[] sets, int count) {
+        return scan(cards, size, sets, count);
+    }
+
+    @Override
+    public int countSets(int[] cards, int size) {
+        return scan(cards, size, null, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean hasSet(int[] cards, int size) {
+        return scan(cards, size, null, 1) > 0;
+    }
+
+    /**
+     * Scans the first size cards for up to count sets.
+     * @param sets - the output array for the card ids of the sets found (null if only counting).
+     * @return     - the number of sets found.
+     */
+    private int scan(int[] cards, int size, int[] sets, int count) {
+        if (count <= 0 || size < config.featureSize) return 0;
+        return config.featureSize == 3 ? scanByCompletion(cards, size, sets, count) : scanByCombination(cards, size, sets, count);
+    }
+
+    /**
+     * O(n^2) finder: for each pair of cards, looks up the card completing them in a presence bitmap.
+     */
+    private int scanByCompletion(int[] cards, int size, int[] sets, int count) {
+        long[] bits = present.get();
+        for (int i = 0; i < size; ++i)
+            bits[cards[i] >>> 6] |= 1L << cards[i];
+
+        int found = 0;
+        pairs:
+        for (int i = 0; i < size - 1; ++i)
+            for (int j = i + 1; j < size; ++j) {
+                int a = cards[i], b = cards[j];
+                int c = completeSet(a, b);
+                // every set is reported once, by the pair holding its two smallest cards
+                if (c > a && c > b && (bits[c >>> 6] & (1L << c)) != 0) {
+                    if (sets != null) {
+                        sets[3 * found] = a;
+                        sets[3 * found + 1] = b;
+                        sets[3 * found + 2] = c;
+                    }
+                    if (++found >= count) break pairs;
+                }
+            }
+
+        for (int i = 0; i < size; ++i)
+            bits[cards[i] >>> 6] &= ~(1L << cards[i]);
+        return found;
+    }
+
+    /**
+     * Fallback finder for sets of other sizes: tests every combination of featureSize cards.
+     */
+    private int scanByCombination(int[] cards, int size, int[] sets, int count) {
         int r = config.featureSize;
         int[] combination = new int[r];
+        int[] candidate = new int[r];
+        int found = 0;
 
         for (int i = 0; i < r; ++i)
             combination[i] = i;
 
-        while (combination[r - 1] < deck.size()) {
-            int[] cards = Arrays.stream(combination).map(deck::get).sorted().toArray();
-            if (testSet(cards)) {
-                sets.add(cards);
-                if (sets.size() >= count) return sets;
+        while (combination[r - 1] < size) {
+            for (int i = 0; i < r; ++i)
+                candidate[i] = cards[combination[i]];
+            if (testSet(candidate)) {
+                if (sets != null)
+                    System.arraycopy(candidate, 0, sets, r * found, r);
+                if (++found >= count) return found;
             }
 
             // generate next combination in lexicographic order
             int t = r - 1;
-            while (t != 0 && combination[t] == n - r + t) --t;
+            while (t != 0 && combination[t] == size - r + t) --t;
             combination[t]++;
             for (int i = t + 1; i < r; i++) combination[i] = combination[i - 1] + 1;
         }
-        return sets;
+        return found;
     }
 }
@@ -0,0 +1,115 @@
+package bguspl.set;
+
+import java.util.PriorityQueue;
+
+/**
+ * A discrete-event implementation of the Clock interface. Time only moves when nothing holds the clock (e.g. an actor
+ * with work to do), and then it jumps straight to the next scheduled task. A game with timeouts, freezes and
+ * computer players thinking runs the same as in real time, but without waiting for any of it.
+ * Note: the scheduled tasks run on the thread that released the clock (or scheduled them), so they must be short.
+ *
+ * @inv holds >= 0
+ */
+public class VirtualClock implements Clock {
+
+    /**
+     * A task scheduled to run at a certain time.
+     */
+    private static class Task implements Comparable<Task> {
+
+        final long due;
+        final long order;
+        final Runnable task;
+
+        Task(long due, long order, Runnable task) {
+            this.due = due;
+            this.order = order;
+            this.task = task;
+        }
+
+        @Override
+        public int compareTo(Task other) {
+            return due != other.due ? Long.compare(due, other.due) : Long.compare(order, other.order);
+        }
+    }
+
+    /**
+     * The scheduled tasks, by time (and by order of scheduling for tasks due at the same time).
+     */
+    private final PriorityQueue<Task> tasks = new PriorityQueue<>();
+
+    /**
+     * The current time.
+     */
+    private long now;
+
+    /**
+     * The number of tasks scheduled so far.
+     */
+    private long scheduled;
+
+    /**
+     * The number of holds not released yet.
+     */
+    private int holds;
+
+    /**
+     * True iff time is being advanced (tasks run while advancing may call the clock).
+     */
+    private boolean advancing;
+
+    /**
+     * @param startMillis - the time the clock starts at.
+     */
+    public VirtualClock(long startMillis) {
+        now = startMillis;
+    }
+
+    public VirtualClock() {
+        this(0);
+    }
+
+    @Override
+    public synchronized long currentTimeMillis() {
+        return now;
+    }
+
+    @Override
+    public synchronized long nanoTime() {
+        return now * 1_000_000;
+    }
+
+    @Override
+    public synchronized void schedule(Runnable task, long delayMillis) {
+        tasks.add(new Task(now + Math.max(0, delayMillis), scheduled++, task));
+        advanceIfIdle();
+    }
+
+    @Override
+    public synchronized void hold() {
+        holds++;
+    }
+
+    @Override
+    public synchronized void release() {
+        holds--;
+        advanceIfIdle();
+    }
+
+    /**
+     * While nothing holds the clock, moves the time to the next task and runs the tasks due.
+     */
+    private void advanceIfIdle() {
+        if (advancing) return;
+        advancing = true;
+        try {
+            while (holds == 0 && !tasks.isEmpty()) {
+                now = Math.max(now, tasks.peek().due);
+                while (!tasks.isEmpty() && tasks.peek().due <= now)
+                    tasks.poll().task.run();
+            }
+        } finally {
+            advancing = false;
+        }
+    }
+}
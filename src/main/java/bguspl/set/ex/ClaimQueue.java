@@ -0,0 +1,222 @@
+package bguspl.set.ex;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * This class queues the set claims of the players for the dealer to examine, in the order they were made.
+ * Players (many producers) submit claims without locking and the dealer (single consumer) polls them. Each player
+ * has at most one pending claim, stored in a fixed-size record. A claim is cancelled in O(1) by advancing its
+ * player's generation, and cancelled claims are reported as stale when polled.
+ *
+ * @inv every player id appears at most once in ring
+ */
+class ClaimQueue {
+
+    /**
+     * The number of bits of a slot in a claim record (the table has at most 64 slots).
+     */
+    private static final int SLOT_BITS = 6;
+
+    /**
+     * The mask of a slot in a claim record.
+     */
+    private static final long SLOT_MASK = (1L << SLOT_BITS) - 1;
+
+    /**
+     * Marks a claim record as valid, so a record of 0 means there is no claim.
+     */
+    private static final long VALID = 1L << 63;
+
+    /**
+     * The pending claim of each player: the valid bit, the generation at bits 24 to 55 and 3 slots at bits 0 to 17
+     * (0 if none).
+     */
+    private final AtomicLongArray claims;
+
+    /**
+     * The version of the table each pending claim was made at (written before the claim record).
+     */
+    private final AtomicLongArray versions;
+
+    /**
+     * The System.nanoTime each pending claim was submitted at (written before the claim record).
+     */
+    private final AtomicLongArray times;
+
+    /**
+     * The number of times each player's claim was written, twice per submission (before and after), so it is odd
+     * while a claim is being submitted. The dealer checks it did not change while it read a claim's fields.
+     */
+    private final AtomicIntegerArray stamps;
+
+    /**
+     * The current generation of each player. Claims stamped with an older generation are stale.
+     */
+    private final AtomicIntegerArray generations;
+
+    /**
+     * 1 iff the player's id is in the ring.
+     */
+    private final AtomicIntegerArray queued;
+
+    /**
+     * The order in which the players made their claims (player id + 1 per entry, 0 if the entry is empty).
+     */
+    private final AtomicIntegerArray ring;
+
+    /**
+     * The next entry of the ring to write to (shared by the players).
+     */
+    private final AtomicInteger tail = new AtomicInteger();
+
+    /**
+     * The next entry of the ring to read from (owned by the dealer).
+     */
+    private int head;
+
+    /**
+     * The last claim polled (owned by the dealer).
+     */
+    private long polled;
+
+    /**
+     * The version of the table the last claim polled was made at.
+     */
+    private long polledVersion;
+
+    /**
+     * The System.nanoTime the last claim polled was submitted at.
+     */
+    private long polledTime;
+
+    /**
+     * The generation of the player of the last claim polled.
+     */
+    private int polledGeneration;
+
+    /**
+     * True iff the fields of the last claim polled were read while it was not resubmitted.
+     */
+    private boolean polledIntact;
+
+    /**
+     * @param players - the number of players.
+     */
+    ClaimQueue(int players) {
+        claims = new AtomicLongArray(players);
+        versions = new AtomicLongArray(players);
+        times = new AtomicLongArray(players);
+        stamps = new AtomicIntegerArray(players);
+        generations = new AtomicIntegerArray(players);
+        queued = new AtomicIntegerArray(players);
+        ring = new AtomicIntegerArray(Integer.highestOneBit(Math.max(1, players - 1)) << 1);
+    }
+
+    /**
+     * Reads the current generation of a player. Must be read before the slots of a claim are collected, so a claim
+     * made of tokens removed in the meantime is stale.
+     *
+     * @param player - the player id.
+     * @return       - the player's current generation.
+     */
+    int generation(int player) {
+        return generations.get(player);
+    }
+
+    /**
+     * Submits a claim, replacing the player's previous claim if it was not polled yet. The claims of a player are
+     * submitted one at a time (on the player's turns).
+     *
+     * @param player     - the player id.
+     * @param generation - the player's generation read before collecting the slots.
+     * @param version    - the version of the table read before collecting the slots.
+     * @param slots      - the slots claimed, one bit per slot (exactly 3 bits set).
+     */
+    void submit(int player, int generation, long version, long slots) {
+        long claim = VALID | (generation & 0xFFFFFFFFL) << 24;
+        for (int i = 0; i < 3; ++i, slots &= slots - 1)
+            claim |= (long) Long.numberOfTrailingZeros(slots) << (i * SLOT_BITS);
+        stamps.incrementAndGet(player);
+        versions.set(player, version);
+        times.set(player, System.nanoTime());
+        claims.set(player, claim);
+        stamps.incrementAndGet(player);
+        if (queued.compareAndSet(player, 0, 1))
+            ring.set(tail.getAndIncrement() & (ring.length() - 1), player + 1);
+    }
+
+    /**
+     * Cancels the pending claim of a player (if any), e.g. when one of its tokens is removed.
+     *
+     * @param player - the player id.
+     */
+    void cancel(int player) {
+        generations.incrementAndGet(player);
+    }
+
+    /**
+     * Polls the oldest claim. Its slots and freshness are then available through slot and isCurrent.
+     *
+     * @return - the id of the player that made the claim, -1 if there are no claims.
+     */
+    int poll() {
+        while (true) {
+            int index = head & (ring.length() - 1);
+            int entry = ring.get(index);
+            if (entry == 0) return -1;
+            ring.set(index, 0);
+            ++head;
+
+            int player = entry - 1;
+            queued.set(player, 0);
+            int stamp = stamps.get(player);
+            polled = claims.getAndSet(player, 0);
+            if (polled != 0) { // otherwise it was already taken along with an earlier entry of the player
+                polledVersion = versions.get(player);
+                polledTime = times.get(player);
+                polledGeneration = generations.get(player);
+                polledIntact = (stamp & 1) == 0 && stamps.get(player) == stamp;
+                return player;
+            }
+        }
+    }
+
+    /**
+     * @param i - the index of the slot in the last claim polled (0 to 2).
+     * @return  - the slot.
+     */
+    int slot(int i) {
+        return (int) (polled >>> (i * SLOT_BITS) & SLOT_MASK);
+    }
+
+    /**
+     * @return - the version of the table the last claim polled was made at.
+     */
+    long version() {
+        return polledVersion;
+    }
+
+    /**
+     * @return - the System.nanoTime the last claim polled was submitted at.
+     */
+    long submitted() {
+        return polledTime;
+    }
+
+    /**
+     * @return - the number of entries waiting to be polled (including entries of claims already taken or cancelled).
+     */
+    int size() {
+        return tail.get() - head;
+    }
+
+    /**
+     * @return - true iff the last claim polled was not cancelled, nor resubmitted while it was polled (its version
+     *           and time may then belong to the new claim).
+     */
+    boolean isCurrent() {
+        return polledIntact && (int) (polled >>> 24) == polledGeneration;
+    }
+}
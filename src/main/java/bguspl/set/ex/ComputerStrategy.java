@@ -0,0 +1,25 @@
+package bguspl.set.ex;
+
+/**
+ * A strategy of a computer player: which keys to press, and how long to think before pressing them.
+ */
+public interface ComputerStrategy {
+
+    /**
+     * The most key presses a strategy may choose at once (removing 3 tokens and placing 3).
+     */
+    int MAX_PRESSES = 6;
+
+    /**
+     * @return - the number of milliseconds to think before the next key presses.
+     */
+    long thinkMillis();
+
+    /**
+     * Chooses the next key presses.
+     *
+     * @param slots - receives the slots to press, in order (room for MAX_PRESSES slots).
+     * @return      - the number of slots to press (0 if there is nothing to press for now).
+     */
+    int nextPresses(int[] slots);
+}
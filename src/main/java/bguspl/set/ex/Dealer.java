@@ -1,22 +1,26 @@
 package bguspl.set.ex;
 
+import bguspl.set.Actor;
 import bguspl.set.Env;
-import bguspl.set.UserInterfaceImpl;
-
-import java.util.LinkedList;
-import java.util.List;
-import java.util.Queue;
-import java.util.Random;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import bguspl.set.FlightEvents;
+import bguspl.set.GameLog;
+import bguspl.set.Journal;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 /**
- * This class manages the dealer's threads and data
+ * This class manages the dealer's data. The dealer is an actor: it runs on turns given to it by the game's actor
+ * pool, when the players make claims, when its timer goes off and when the players stop at the end of the game.
  */
-public class Dealer implements Runnable {
+public class Dealer extends Actor implements Runnable {
+
+    /**
+     * The phases of the dealer. In the table phases (REMOVING_SET, DEALING and RESHUFFLING) the dealer removes or
+     * places one card at a time, tableDelayMillis apart, and the claims wait until it is PLAYING again.
+     */
+    private enum Phase {CREATED, DEALING, PLAYING, REMOVING_SET, RESHUFFLING, FINISHING, FINISHED}
 
     /**
      * The game environment object.
@@ -30,9 +34,14 @@ public class Dealer implements Runnable {
     private final Player[] players;
 
     /**
-     * The list of card ids that are left in the dealer's deck.
+     * The card ids that are left in the dealer's deck.
+     */
+    private final Deck deck;
+
+    /**
+     * The legal sets left among the cards in play (deck and table).
      */
-    private final List<Integer> deck;
+    private final SetTracker setsLeft;
 
     /**
      * True iff game should be terminated due to an external event.
@@ -44,94 +53,366 @@ public class Dealer implements Runnable {
      */
     private long reshuffleTime = Long.MAX_VALUE;
 
-    private Thread[] threads;
+    /**
+     * The time of the last legal set claimed (or of the last reshuffle), for the elapsed time display.
+     */
+    private long lastActionTime;
+
+    /**
+     * The value currently shown by the timer display, in units of its resolution (-1 if nothing was shown yet).
+     */
+    private long displayedTime = -1;
+
+    /**
+     * True iff the timer display currently shows the countdown warning.
+     */
+    private boolean displayedWarning;
+
+    /**
+     * The claims of the players, waiting to be examined.
+     */
+    private final ClaimQueue claims;
+
+    /**
+     * The number of claims examined and the number of legal sets claimed.
+     */
+    private volatile int claimCount, setCount;
+
+    /**
+     * The cards of the claim being examined (or of the legal set being removed).
+     */
+    private final int[] claimed = new int[3];
 
-    private Queue<Integer[]> SetsToTest;
+    /**
+     * The players whose tokens were removed from a slot, one bit per player.
+     */
+    private final long[] affectedPlayers;
+
+    /**
+     * The current phase of the dealer.
+     */
+    private Phase phase = Phase.CREATED;
+
+    /**
+     * The next slot the current table phase works on (the next card of the set, when REMOVING_SET).
+     */
+    private int cursor;
+
+    /**
+     * The number of cards placed or returned to the deck in the current table phase.
+     */
+    private int moved;
+
+    /**
+     * The player whose legal set is being replaced (-1 if none).
+     */
+    private int scorer = -1;
+
+    /**
+     * True iff the players were started.
+     */
+    private boolean playersStarted;
+
+    /**
+     * The System.nanoTime the last reshuffle started at (-1 if it was recorded already).
+     */
+    private long reshuffleStart = -1;
+
+    /**
+     * The flight events of the current table phase (null if disabled).
+     */
+    private FlightEvents.CardsDealt dealtEvent;
+    private FlightEvents.Reshuffle reshuffleEvent;
+
+    /**
+     * True iff the dealer's step timer is set, and true once it went off (the next card may be moved).
+     */
+    private boolean stepTimerSet;
+    private volatile boolean stepDue;
+
+    /**
+     * The time the dealer's timer is set to go off at (Long.MAX_VALUE if it is not set).
+     */
+    private long timerTime = Long.MAX_VALUE;
+
+    /**
+     * The tasks of the dealer's timers (allocated once).
+     */
+    private final Runnable stepTimer = () -> {
+        stepDue = true;
+        wake();
+    };
+    private final Runnable timer = this::wake;
+
+    /**
+     * The number of players that stopped.
+     */
+    private final AtomicInteger stoppedPlayers = new AtomicInteger();
+
+    /**
+     * Called once the game is over (null until the game is started).
+     */
+    private volatile Runnable whenFinished;
+
+    /**
+     * The failure of the dealer (null if none).
+     */
+    private volatile RuntimeException failure;
 
     public Dealer(Env env, Table table, Player[] players) {
+        super(env);
         this.env = env;
         this.table = table;
         this.players = players;
-        deck = IntStream.range(0, env.config.deckSize).boxed().collect(Collectors.toList());
-        threads = new Thread[players.length];
-        SetsToTest = new LinkedList<>();
+        deck = new Deck(env.config.deckSize, env.config.randomSeed);
+        setsLeft = new SetTracker(env);
+        claims = new ClaimQueue(players.length);
+        affectedPlayers = new long[(players.length + Long.SIZE - 1) / Long.SIZE];
     }
 
     /**
-     * The dealer thread starts here (main loop for the dealer thread).
+     * Plays the game to the end. The dealer and the players do the work on their turns, the calling thread only
+     * waits for them to finish.
+     *
+     * @throws IllegalStateException - if the dealer failed.
      */
     @Override
     public void run() {
-        env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " starting.");
-        boolean canstart=false;
-        do {
-            placeCardsOnTable();
-            if (!canstart) { //initializing it once
-                for (int i=0;i<players.length;i++) { //initialize the threads
-                    threads[i] = new Thread(players[i]);
-                    threads[i].start();
-                }
-                canstart = true;
+        CountDownLatch finished = new CountDownLatch(1);
+        start(finished::countDown);
+        boolean interrupted = false;
+        while (true) {
+            try {
+                finished.await();
+                break;
+            } catch (InterruptedException e) {
+                interrupted = true;
+                terminate();
             }
-            timerLoop();
-            updateTimerDisplay(false);
-            removeAllCardsFromTable();
-        } while (!shouldFinish());
-        announceWinners();
-        env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " terminated.");
+        }
+        if (interrupted)
+            Thread.currentThread().interrupt();
+        if (failure != null)
+            throw new IllegalStateException("the dealer failed", failure);
     }
 
     /**
-     * The inner loop of the dealer thread that runs as long as the countdown did not time out.
+     * Starts the game and returns right away.
+     *
+     * @param finished - called once the game is over and the dealer and the players stopped (on a worker thread).
+     * @throws IllegalStateException - if the game was already started.
      */
-    private void timerLoop() {
-        reshuffleTime = System.currentTimeMillis()+env.config.turnTimeoutMillis;
-        env.ui.setCountdown(env.config.turnTimeoutMillis,false);
-        while (!terminate && System.currentTimeMillis() < reshuffleTime) {
-            updateTimerDisplay(reshuffleTime - System.currentTimeMillis()<env.config.turnTimeoutWarningMillis);
-            sleepUntilWokenOrTimeout();
-            if (!SetsToTest.isEmpty()) {
-                examine(SetsToTest.poll());
-            }
+    public void start(Runnable finished) {
+        synchronized (this) {
+            if (whenFinished != null)
+                throw new IllegalStateException("the game was already started");
+            whenFinished = finished;
+        }
+        wake();
+    }
 
+    /**
+     * Handles the claims, the timers and the players stopping, in the dealer's current phase.
+     */
+    @Override
+    protected void receive() {
+        env.metrics.dealerWokeUp();
+        if (phase == Phase.CREATED) {
+            if (whenFinished == null)
+                return; // not started yet
+            env.log.log(Level.INFO, GameLog.Event.DEALER_STARTING);
+            startDealing();
         }
+        boolean changed;
+        do {
+            switch (phase) {
+                case PLAYING:
+                    changed = play();
+                    break;
+                case FINISHING:
+                    changed = finish();
+                    break;
+                case FINISHED:
+                    changed = false;
+                    break;
+                default:
+                    changed = moveCards();
+            }
+        } while (changed);
+    }
+
+    @Override
+    protected void failed(RuntimeException e) {
+        failure = e;
+        phase = Phase.FINISHED;
+        env.log.log(Level.SEVERE, "the dealer failed: " + e);
+        for (Player player : players)
+            player.terminate();
     }
-    public synchronized void HandleTest (int[] cards, int id) { // queue of sets to test by dealer
-        Integer[] Set = new Integer[4];
-        Set[0] = id;
-        for (int i=1;i<Set.length;i++) {
-            Set[i] = cards[i-1];
+
+    @Override
+    protected void finished() {
+        env.log.log(Level.INFO, GameLog.Event.DEALER_TERMINATED);
+        whenFinished.run();
+    }
+
+    /**
+     * Examines the claims and keeps the timer going, as long as the countdown did not time out and there are sets on
+     * the table.
+     *
+     * @return - true iff the phase changed.
+     */
+    private boolean play() {
+        examineClaims();
+        if (phase != Phase.PLAYING)
+            return true;
+        updateTimerDisplay(false);
+        if (terminate || env.clock.currentTimeMillis() >= reshuffleTime || table.countSets() == 0) {
+            startReshuffle();
+            return true;
         }
-        SetsToTest.add(Set);
-        notifyAll();
+        setTimer();
+        return false;
     }
-    private void examine(Integer[] Set) { //handle the test of the set and its outcomes
-        int playerid = Set[0];
-        int[] cards = new int[3];
-        for (int i=0;i<cards.length;i++) {
-            cards[i]=Set[i+1];
+
+    /**
+     * Submits the claim of a player whose 3 tokens are on the table (called on the player's turn).
+     *
+     * @param id - the id of the player making the claim.
+     * @return   - true iff the claim was submitted, false if the player no longer has 3 tokens on the table.
+     */
+    public boolean HandleTest(int id) {
+        int generation = claims.generation(id);
+        long version = table.version();
+        long tokens = table.getTokens(id);
+        if (Long.bitCount(tokens) != 3)
+            return false;
+        claims.submit(id, generation, version, tokens);
+        wake();
+        if (FlightEvents.ClaimSubmitted.TYPE.isEnabled()) {
+            FlightEvents.ClaimSubmitted event = new FlightEvents.ClaimSubmitted();
+            event.player = id;
+            event.firstSlot = Long.numberOfTrailingZeros(tokens);
+            event.secondSlot = Long.numberOfTrailingZeros(tokens & tokens - 1);
+            event.thirdSlot = 63 - Long.numberOfLeadingZeros(tokens);
+            event.commit();
         }
-        boolean isSet = env.util.testSet(cards);
-        if (isSet) {
-            removeCardsFromTable(cards); //removing the three cards of the set
-            placeCardsOnTable();
-            players[playerid].SetSleep(env.config.pointFreezeMillis);
+        return true;
+    }
 
-        } else {
-                players[playerid].SetSleep(env.config.penaltyFreezeMillis);
+    /**
+     * Examines the pending claims in the order they were made, until a legal set is found (the remaining claims wait
+     * until its cards are replaced). Cancelled claims, and claims on slots whose cards changed since the claim was
+     * made, are returned to their players without a penalty.
+     */
+    void examineClaims() {
+        env.metrics.claimQueueDepth.record(claims.size());
+        for (int player = claims.poll(); player != -1; player = claims.poll()) {
+            if (claims.isCurrent() && isFresh()) {
+                if (examine(player))
+                    return;
+            } else {
+                env.metrics.claimCanceled();
+                if (env.journal != null)
+                    env.journal.record(Journal.CLAIM_CANCELED, player, -1, 0);
+                players[player].verdict(Player.CANCELED);
+            }
         }
+    }
+
+    /**
+     * @return - true iff the cards in the slots of the last claim polled did not change since it was made.
+     */
+    private boolean isFresh() {
+        long version = claims.version();
+        return table.isUnchangedSince(claims.slot(0), version)
+                && table.isUnchangedSince(claims.slot(1), version)
+                && table.isUnchangedSince(claims.slot(2), version);
+    }
 
+    /**
+     * Examines a claim. An illegal claim is penalized right away, and the cards of a legal set are removed and
+     * replaced before its player gets the point.
+     *
+     * @param playerid - the player who made the claim.
+     * @return         - true iff the claim was a legal set.
+     */
+    private boolean examine(int playerid) {
+        FlightEvents.ClaimVerified event = null;
+        if (FlightEvents.ClaimVerified.TYPE.isEnabled()) {
+            event = new FlightEvents.ClaimVerified();
+            event.begin();
+        }
+        for (int i = 0; i < claimed.length; i++) {
+            claimed[i] = table.slotToCard[claims.slot(i)];
+        }
+        long start = System.nanoTime();
+        boolean isSet = env.util.testSet(claimed[0], claimed[1], claimed[2]);
+        long verdict = System.nanoTime();
+        env.metrics.verification.record(verdict - start);
+        env.metrics.enqueueToVerdict.record(verdict - claims.submitted());
+        env.metrics.claimExamined(isSet);
+        claimCount++;
+        if (env.journal != null)
+            env.journal.record(isSet ? Journal.CLAIM_LEGAL : Journal.CLAIM_ILLEGAL, playerid, -1,
+                    Journal.claimValue(claims.slot(0), claims.slot(1), claims.slot(2)));
         if (isSet) {
-            reshuffleTime = System.currentTimeMillis() + 60000;
-            env.ui.setCountdown(env.config.turnTimeoutMillis, false);
+            setCount++;
+            scorer = playerid;
+            phase = Phase.REMOVING_SET; // the cards of the set are removed, then the empty slots are dealt
+            cursor = 0;
+        } else {
+            players[playerid].verdict(Player.ILLEGAL);
+        }
+        if (event != null) {
+            event.player = playerid;
+            event.firstSlot = claims.slot(0);
+            event.secondSlot = claims.slot(1);
+            event.thirdSlot = claims.slot(2);
+            event.legal = isSet;
+            event.queued = verdict - claims.submitted();
+            event.commit();
         }
+        return isSet;
     }
 
     /**
      * Called when the game should be terminated due to an external event.
      */
     public void terminate() {
-        // TODO implement
+        terminate = true;
+        wake();
+    }
+
+    /**
+     * Called by a player once it stopped.
+     */
+    void playerStopped() {
+        stoppedPlayers.incrementAndGet();
+        wake();
+    }
+
+    /**
+     * Terminates the players (in reverse order of creation). The winners are announced once they all stopped.
+     */
+    private void startFinishing() {
+        phase = Phase.FINISHING;
+        for (int i = players.length - 1; i >= 0; i--)
+            players[i].terminate();
+    }
+
+    /**
+     * Announces the winners and stops the dealer, once all the players stopped (so their scores are final).
+     *
+     * @return - false (the dealer either waits for the players or stops).
+     */
+    private boolean finish() {
+        if (stoppedPlayers.get() < players.length)
+            return false;
+        announceWinners();
+        phase = Phase.FINISHED;
+        stop();
+        return false;
     }
 
     /**
@@ -140,99 +421,279 @@ public class Dealer implements Runnable {
      * @return true iff the game should be finished.
      */
     private boolean shouldFinish() {
-        return terminate || env.util.findSets(deck, 1).size() == 0;
+        return terminate || !setsLeft.hasSets();
+    }
+
+    /**
+     * Cancels the claims of the players whose tokens were removed (if a player sent a set to test with a removed
+     * card, the claim is no longer valid).
+     */
+    private void cancelClaims() {
+        for (int word = 0; word < affectedPlayers.length; ++word)
+            for (long bits = affectedPlayers[word]; bits != 0; bits &= bits - 1)
+                claims.cancel((word << 6) + Long.numberOfTrailingZeros(bits));
     }
 
     /**
-     * Checks cards should be removed from the table and removes them.
+     * Drops the key presses of all players on a slot that were not handled yet.
      */
-    private void removeCardsFromTable(int [] cards) {
-        for (int i = 0; i < cards.length; i++) {
-            int slot = table.cardToSlot[cards[i]];
-            table.removeCard(slot);
-            env.ui.removeTokens(slot);
-            env.ui.removeCard(slot);
-            for (Player p : table.tokensonslot[slot]) { //removing the token on slot i from players queue
-                for (Integer[] Set: SetsToTest) { // if the player sent a set to test with this card, we remove the set from the queue
-                    if(Set[0]==p.id) SetsToTest.remove(Set);
+    private void removePendingPresses(int slot) {
+        for (Player player : players) {
+            player.getInputPresses().remove(slot);
+        }
+    }
+
+    /**
+     * Starts filling the empty slots of the table from the deck.
+     */
+    private void startDealing() {
+        phase = Phase.DEALING;
+        cursor = 0;
+        moved = 0;
+        if (FlightEvents.CardsDealt.TYPE.isEnabled()) {
+            dealtEvent = new FlightEvents.CardsDealt();
+            dealtEvent.begin();
+        }
+    }
+
+    /**
+     * Starts returning all the cards on the table to the deck.
+     */
+    private void startReshuffle() {
+        phase = Phase.RESHUFFLING;
+        cursor = 0;
+        moved = 0;
+        reshuffleStart = System.nanoTime();
+        if (FlightEvents.Reshuffle.TYPE.isEnabled()) {
+            reshuffleEvent = new FlightEvents.Reshuffle();
+            reshuffleEvent.begin();
+        }
+        if (env.journal != null)
+            env.journal.record(Journal.RESHUFFLE, -1, -1, 0);
+    }
+
+    /**
+     * Moves the cards of the current table phase one at a time, each tableDelayMillis after the previous one. The
+     * dealer sets its step timer in between, so its worker is free for the other actors meanwhile.
+     *
+     * @return - true iff the phase changed.
+     */
+    private boolean moveCards() {
+        Phase current = phase;
+        for (int slot = nextSlot(); slot >= 0; slot = nextSlot()) {
+            if (env.config.tableDelayMillis > 0 && !stepDue) {
+                if (!stepTimerSet) {
+                    stepTimerSet = true;
+                    env.clock.schedule(stepTimer, env.config.tableDelayMillis);
                 }
-                p.gettokensplaced().remove((Object)slot);
-            }
-            for (int j=0;j<players.length;i++) {
-                if (players[j].getInputPresses().contains(slot))
-                    players[j].getInputPresses().remove(slot);
+                return false;
             }
-            table.tokensonslot[slot].clear();
+            stepTimerSet = false;
+            stepDue = false;
+            moveCard(slot);
         }
+        endTablePhase();
+        return phase != current;
     }
+
     /**
-     * Check if any cards can be removed from the deck and placed on the table.
+     * @return - the slot of the next card the current table phase moves (-1 if it is done).
      */
-    private void placeCardsOnTable() {
-        for (int i=0;i<12;i++) {
-            if (table.slotToCard[i] == null && !(deck.isEmpty())) {
-                Random rand = new Random();
-                int rnd = rand.nextInt(deck.size());
-                table.placeCard(deck.get(rnd), i);
-                env.ui.placeCard(deck.get(rnd), i);
-                deck.remove(rnd);
-            }
+    private int nextSlot() {
+        int slots = table.slotToCard.length;
+        switch (phase) {
+            case REMOVING_SET:
+                return cursor < claimed.length ? table.cardToSlot[claimed[cursor]] : -1;
+            case DEALING:
+                while (cursor < slots && table.slotToCard[cursor] != null)
+                    ++cursor;
+                return cursor < slots && !deck.isEmpty() ? cursor : -1;
+            default: // RESHUFFLING
+                while (cursor < slots && table.slotToCard[cursor] == null)
+                    removePendingPresses(cursor++);
+                return cursor < slots ? cursor : -1;
+        }
+    }
 
+    /**
+     * Moves the next card of the current table phase.
+     *
+     * @param slot - the slot of the card (see nextSlot).
+     */
+    private void moveCard(int slot) {
+        if (phase == Phase.DEALING) {
+            int card = deck.draw();
+            table.placeCard(card, slot);
+            env.ui.placeCard(card, slot);
+            ++moved;
+            cursor = slot + 1;
+            return;
+        }
+
+        int card = table.slotToCard[slot];
+        table.removeCard(slot);
+        if (phase == Phase.REMOVING_SET) {
+            setsLeft.remove(card);
+            ++cursor;
+        } else {
+            deck.putBack(card);
+            ++moved;
+            cursor = slot + 1;
         }
+        env.ui.removeTokens(slot);
+        env.ui.removeCard(slot);
+        table.removeTokens(slot, affectedPlayers);
+        cancelClaims();
+        removePendingPresses(slot);
     }
 
     /**
-     * Sleep for a fixed amount of time or until the thread is awakened for some purpose.
+     * Moves on from a table phase that is done: from removing a set to dealing, from dealing to playing, and from
+     * reshuffling to dealing or to the end of the game.
      */
-    private synchronized void sleepUntilWokenOrTimeout() {
-       int towait=1000;
-       if (reshuffleTime - System.currentTimeMillis() < env.config.turnTimeoutMillis)
-           towait=20;
-        try {
-            wait(towait);
-        }catch (InterruptedException e){};
+    private void endTablePhase() {
+        switch (phase) {
+            case REMOVING_SET:
+                startDealing();
+                break;
+            case DEALING:
+                if (dealtEvent != null) {
+                    dealtEvent.cards = moved;
+                    dealtEvent.commit();
+                    dealtEvent = null;
+                }
+                if (reshuffleStart >= 0) {
+                    env.metrics.reshuffle.record(System.nanoTime() - reshuffleStart);
+                    reshuffleStart = -1;
+                }
+                if (scorer >= 0) {
+                    players[scorer].verdict(Player.LEGAL);
+                    scorer = -1;
+                }
+                if (!playersStarted) {
+                    playersStarted = true;
+                    for (Player player : players)
+                        player.start();
+                }
+                phase = Phase.PLAYING;
+                updateTimerDisplay(true);
+                break;
+            default: // RESHUFFLING
+                if (reshuffleEvent != null) {
+                    reshuffleEvent.cards = moved;
+                    reshuffleEvent.commit();
+                    reshuffleEvent = null;
+                }
+                if (shouldFinish())
+                    startFinishing();
+                else
+                    startDealing();
+        }
+    }
 
+    /**
+     * Sets the dealer's timer for when the timer display changes (which is also no later than the reshuffle time),
+     * unless it is set to go off sooner already. A timer that was overtaken by a sooner one only wakes the dealer up
+     * for nothing.
+     */
+    private void setTimer() {
+        long now = env.clock.currentTimeMillis();
+        if (timerTime <= now)
+            timerTime = Long.MAX_VALUE; // it went off
+        long timeout = millisUntilDisplayChanges(now);
+        if (timeout >= 0 && now + timeout < timerTime) {
+            timerTime = now + timeout;
+            env.clock.schedule(timer, timeout);
+        }
     }
 
     /**
-     * Reset and/or update the countdown and the countdown display.
+     * Computes how long until the value shown by the timer display changes, which is also no later than the
+     * reshuffle time. The countdown shows seconds, or hundredths of seconds during the warning period.
+     *
+     * @param now - the current time.
+     * @return    - the number of milliseconds until the display changes, -1 if it never does.
      */
-    private void updateTimerDisplay(boolean reset) {
-        env.ui.setCountdown(reshuffleTime - System.currentTimeMillis(),reset);
+    private long millisUntilDisplayChanges(long now) {
+        long timeout = env.config.turnTimeoutMillis;
+        if (timeout < 0)
+            return -1;
+        if (timeout == 0)
+            return 1000 - (now - lastActionTime) % 1000;
+
+        long remaining = reshuffleTime - now;
+        if (remaining <= 0)
+            return 0;
+        long warning = env.config.turnTimeoutWarningMillis;
+        long millis = remaining % (remaining < warning ? 10 : 1000) + 1;
+        if (remaining >= warning)
+            millis = Math.min(millis, remaining - warning + 1);
+        return Math.min(millis, remaining);
     }
 
     /**
-     * Returns all the cards from the table to the deck.
+     * Reset and/or update the countdown and the countdown display. The display is only updated when the value it
+     * shows changes.
      */
-    private void removeAllCardsFromTable() {
-        for (int i=0;i<table.slotToCard.length;i++) {
-            if (table.slotToCard[i] != null) {
-                int card = table.slotToCard[i];
-                table.removeCard(i);
-                deck.add(card);
-                env.ui.removeTokens(i);
-                env.ui.removeCard(i);
-                for (Player p : table.tokensonslot[i]) { //removing the token on slot i from players queue
-                      p.gettokensplaced().remove((Object)i);
-                }
-                table.tokensonslot[i].clear(); // cleaning the slot in table tokens on slot from tokens
-            }
-            for (int j=0;j<players.length;i++) {
-                if (players[j].getInputPresses().contains(i))
-                    players[j].getInputPresses().remove(i);
-            }
+    private void updateTimerDisplay(boolean reset) {
+        long now = env.clock.currentTimeMillis();
+        long timeout = env.config.turnTimeoutMillis;
+        if (reset) {
+            reshuffleTime = timeout > 0 ? now + timeout : Long.MAX_VALUE;
+            lastActionTime = now;
+            displayedTime = -1;
         }
 
+        if (timeout > 0) {
+            long remaining = Math.max(0, reshuffleTime - now);
+            boolean warn = remaining < env.config.turnTimeoutWarningMillis;
+            long shown = remaining / (warn ? 10 : 1000);
+            if (shown != displayedTime || warn != displayedWarning) {
+                displayedTime = shown;
+                displayedWarning = warn;
+                env.ui.setCountdown(remaining, warn);
+            }
+        } else if (timeout == 0) {
+            long elapsed = now - lastActionTime;
+            if (elapsed / 1000 != displayedTime) {
+                displayedTime = elapsed / 1000;
+                env.ui.setElapsed(elapsed);
+            }
         }
+    }
 
     /**
      * Check who is/are the winner/s and displays them.
      */
     private void announceWinners() {
-        int[]playersId = new int[players.length];
-        for (int i=0; i<players.length;i++) {
-            playersId[i] = players[i].id;
-        }
+        int best = 0, winners = 0;
+        for (Player player : players)
+            best = Math.max(best, player.getScore());
+        for (Player player : players)
+            if (player.getScore() == best)
+                winners++;
+        int[] playersId = new int[winners];
+        int next = 0;
+        for (Player player : players)
+            if (player.getScore() == best) {
+                playersId[next++] = player.id;
+                if (env.journal != null)
+                    env.journal.record(Journal.WINNER, player.id, -1, best);
+            }
         env.ui.announceWinner(playersId);
     }
+
+    /**
+     * @return - the number of claims examined so far (legal or not, not counting cancelled claims).
+     */
+    public int getClaimCount() {
+        return claimCount;
+    }
+
+    /**
+     * @return - the number of legal sets claimed so far.
+     */
+    public int getSetCount() {
+        return setCount;
+    }
 }
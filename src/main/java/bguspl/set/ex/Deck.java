@@ -0,0 +1,91 @@
+package bguspl.set.ex;
+
+import java.util.Random;
+
+/**
+ * This class holds the cards left in the dealer's deck, kept in a uniformly random order.
+ *
+ * @inv 0 <= size <= cards.length
+ * @inv cards[0] to cards[size - 1] are the card ids in the deck
+ */
+public class Deck {
+
+    /**
+     * The cards in the deck, in the order they will be drawn (last first).
+     */
+    private final int[] cards;
+
+    /**
+     * The number of cards in the deck.
+     */
+    private int size;
+
+    /**
+     * The source of randomness for shuffling (seeded, so games can be reproduced).
+     */
+    private final Random random;
+
+    /**
+     * Creates a shuffled deck with all the cards.
+     *
+     * @param deckSize - the number of cards in the deck.
+     * @param seed     - the seed for shuffling.
+     */
+    public Deck(int deckSize, long seed) {
+        cards = new int[deckSize];
+        size = deckSize;
+        random = new Random(seed);
+        for (int i = 0; i < size; ++i)
+            cards[i] = i;
+        shuffle();
+    }
+
+    /**
+     * Shuffles the deck (Fisher-Yates).
+     */
+    public void shuffle() {
+        for (int i = size - 1; i > 0; --i)
+            swap(i, random.nextInt(i + 1));
+    }
+
+    /**
+     * Draws the top card of the deck.
+     *
+     * @return - the card drawn.
+     * @pre - the deck is not empty.
+     */
+    public int draw() {
+        return cards[--size];
+    }
+
+    /**
+     * Returns a card to a random position in the deck, so the deck stays shuffled.
+     *
+     * @param card - the card to return.
+     */
+    public void putBack(int card) {
+        cards[size] = card;
+        swap(size, random.nextInt(size + 1));
+        ++size;
+    }
+
+    /**
+     * @return - the number of cards in the deck.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return - true iff there are no cards left in the deck.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    private void swap(int i, int j) {
+        int card = cards[i];
+        cards[i] = cards[j];
+        cards[j] = card;
+    }
+}
@@ -1,47 +1,51 @@
 package bguspl.set.ex;
 
-import java.util.LinkedList;
-import java.util.List;
 import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 
+import bguspl.set.Actor;
 import bguspl.set.Env;
+import bguspl.set.FlightEvents;
+import bguspl.set.GameLog;
+import bguspl.set.Journal;
 
 /**
- * This class manages the players' threads and data
+ * This class manages the players' data. A player is an actor: its key presses, the dealer's verdicts on its claims,
+ * its timers and the end of the game are messages it handles on turns given to it by the game's actor pool.
  *
  * @inv id >= 0
  * @inv score >= 0
  */
-public class Player implements Runnable {
+public class Player extends Actor {
 
     /**
-     * The game environment object.
+     * The verdicts on a claim (NO_VERDICT if there is none to handle).
      */
-    private final Env env;
+    static final int NO_VERDICT = 0, LEGAL = 1, ILLEGAL = 2, CANCELED = 3;
 
     /**
-     * Game entities.
+     * The steps of a computer player: thinking, waiting for its key presses to be accepted again and pressing keys.
      */
-    private final Table table;
+    private enum ComputerStep {THINK, WAIT, PRESS}
 
     /**
-     * The id of the player (starting from 0).
+     * The game environment object.
      */
-    public final int id;
+    private final Env env;
 
     /**
-     * The thread representing the current player.
+     * Game entities.
      */
-    private Thread playerThread;
+    private final Table table;
 
     /**
-     * The thread of the AI (computer) player (an additional thread used to generate key presses).
+     * The id of the player (starting from 0).
      */
-    private Thread aiThread;
+    public final int id;
 
     /**
      * True iff the player is human (not a computer player).
@@ -56,19 +60,67 @@ public class Player implements Runnable {
     /**
      * The current score of the player.
      */
-    private int score;
+    private volatile int score;
 
     private Dealer dealer;
 
-    private List<Integer> tokensplaced;
+    /**
+     * True iff key presses are ignored (while the player's claim is examined or the player is frozen).
+     */
+    private volatile boolean keyBlock;
 
-    private boolean keyBlock;
+    private BlockingQueue<Integer> inputpresses;
 
-    private int slotPressed;
+    /**
+     * The time the player's current freeze ends.
+     */
+    private volatile long freezeEnd;
 
-    private BlockingQueue<Integer> inputpresses;
+    /**
+     * The System.nanoTime of the last key press accepted on each slot (for the claim latency metrics).
+     */
+    private final long[] pressTimes;
 
-    private long sleeptime;
+    /**
+     * The verdict on the player's claim, waiting to be handled (the player has at most one claim pending, as its key
+     * presses are ignored from submitting a claim until the verdict, so one slot is enough).
+     */
+    private final AtomicInteger verdict = new AtomicInteger(NO_VERDICT);
+
+    /**
+     * True iff the dealer started the player (key presses are handled from then on).
+     */
+    private volatile boolean started;
+
+    /**
+     * True once the freeze timer went off, and its task (allocated once).
+     */
+    private volatile boolean freezeDue;
+    private final Runnable freezeTimer = () -> {
+        freezeDue = true;
+        wake();
+    };
+
+    /**
+     * The strategy of the computer player (null until the player is started, or if it is human).
+     */
+    private ComputerStrategy strategy;
+
+    /**
+     * The current step of the computer player, the key presses it chose and the next one to make.
+     */
+    private ComputerStep step;
+    private final int[] presses = new int[ComputerStrategy.MAX_PRESSES];
+    private int pressCount, nextPress;
+
+    /**
+     * True once the computer player's timer went off, and its task (allocated once).
+     */
+    private volatile boolean computerDue;
+    private final Runnable computerTimer = () -> {
+        computerDue = true;
+        wake();
+    };
 
     /**
      * The class constructor.
@@ -80,76 +132,134 @@ public class Player implements Runnable {
      * @param human  - true iff the player is a human player (i.e. input is provided manually, via the keyboard).
      */
     public Player(Env env, Dealer dealer, Table table, int id, boolean human) {
+        super(env);
         this.env = env;
         this.table = table;
         this.id = id;
         this.human = human;
         this.dealer = dealer;
-        this.tokensplaced = new LinkedList<Integer>();
         this.keyBlock = false;
         inputpresses = new LinkedBlockingQueue<>();
+        pressTimes = new long[env.config.tableSize];
     }
 
     /**
-     * The main player thread of each player starts here (main loop for the player thread).
+     * Starts the player: its key presses are handled from now on (called by the dealer once the cards are dealt).
+     */
+    public void start() {
+        env.log.log(Level.INFO, GameLog.Event.PLAYER_STARTING, id, 0);
+        started = true;
+        wake();
+    }
+
+    /**
+     * Handles the verdict on the player's claim, the end of the game, the timers and the key presses.
      */
     @Override
-    public void run() {
-        playerThread = Thread.currentThread();
-        env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + "starting.");
-        if (!human) createArtificialIntelligence();
-        while (!terminate) {
-            if(sleeptime==3000) {
-               System.out.println(Thread.currentThread());
-                penalty();
-            }
-            else if (sleeptime==1000)
-                point();
-            if (!inputpresses.isEmpty()) {
-                int slot = inputpresses.poll();
-                handleKeyPress(slot);
-            }
+    protected void receive() {
+        int verdict = this.verdict.getAndSet(NO_VERDICT);
+        if (verdict == LEGAL)
+            point();
+        else if (verdict == ILLEGAL)
+            penalty();
+        else if (verdict == CANCELED)
+            unblock();
+        if (terminate) { // after the verdict, so the last point is counted
+            stop();
+            return;
         }
-        if (!human) try {
-            aiThread.join();
-        } catch (InterruptedException ignored) {
+        if (freezeDue) {
+            freezeDue = false;
+            updateFreeze();
+        }
+        if (!started)
+            return;
+        if (!human)
+            playComputer();
+        for (Integer slot = inputpresses.poll(); slot != null && !keyBlock; slot = inputpresses.poll())
+            handleKeyPress(slot);
+        if (keyBlock) // the presses queued before the claim was submitted (or the freeze began) are ignored too
+            inputpresses.clear();
+    }
+
+    @Override
+    protected void failed(RuntimeException e) {
+        env.log.log(Level.SEVERE, "player " + id + " failed: " + e);
+    }
+
+    @Override
+    protected void finished() {
+        env.log.log(Level.INFO, GameLog.Event.PLAYER_TERMINATED, id, 0);
+        dealer.playerStopped();
+    }
+
+    /**
+     * Advances the computer player: it thinks (and waits while its key presses are ignored), then makes the key
+     * presses chosen by its strategy, computerKeyDelayMillis apart. It waits by setting its timer on the game clock.
+     */
+    private void playComputer() {
+        if (strategy == null) {
+            strategy = createStrategy();
+            think();
+            return;
         }
-        env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " terminated.");
-    }
-
-    /**
-     * Creates an additional thread for an AI (computer) player. The main loop of this thread repeatedly generates
-     * key presses. If the queue of key presses is full, the thread waits until it is not full.
-     */
-    private void createArtificialIntelligence() {
-        // note: this is a very very smart AI (!)
-        aiThread = new Thread(() -> {
-            env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " starting.");
-            while (!terminate) {
-                Random rand = new Random();
-                int rndslot = rand.nextInt(12);
-                keyPressed(rndslot);
-                try {
-                    synchronized (this) {
-                        wait(1000);
-                    }
-                } catch (InterruptedException ignored) {
-                }
+        if (step != ComputerStep.WAIT) {
+            if (!computerDue)
+                return;
+            computerDue = false;
+            if (step == ComputerStep.PRESS) {
+                press();
+                return;
             }
-            env.logger.log(Level.INFO, "Thread " + Thread.currentThread().getName() + " terminated.");
-        }, "computer-" + id);
-        aiThread.start();
+            step = ComputerStep.WAIT;
+        }
+        if (keyBlock)
+            return; // until unblocked
+        pressCount = strategy.nextPresses(presses);
+        nextPress = 0;
+        if (pressCount == 0)
+            think();
+        else
+            press();
     }
 
-    public List gettokensplaced() {
-        return tokensplaced;
+    /**
+     * Makes the computer player's next key press, and sets its timer for the one after it (or thinks again).
+     */
+    private void press() {
+        keyPressed(presses[nextPress++]);
+        if (nextPress < pressCount) {
+            step = ComputerStep.PRESS;
+            env.clock.schedule(computerTimer, env.config.computerKeyDelayMillis);
+        } else
+            think();
+    }
+
+    /**
+     * Sets the computer player's timer for when it is done thinking.
+     */
+    private void think() {
+        step = ComputerStep.THINK;
+        env.clock.schedule(computerTimer, strategy.thinkMillis());
+    }
+
+    /**
+     * Creates the strategy of the computer player, as configured. Each player has its own source of randomness,
+     * seeded from the game's seed.
+     */
+    private ComputerStrategy createStrategy() {
+        Random random = new Random(env.config.randomSeed + id + 1);
+        if (env.config.computerStrategy.equals("oracle"))
+            return new SetOracleStrategy(env, table, id, random);
+        return new RandomStrategy(env, random);
     }
 
     /**
      * Called when the game should be terminated due to an external event.
      */
     public void terminate() {
-        // TODO implement
+        terminate = true;
+        wake();
     }
 
     /**
@@ -158,40 +268,41 @@ public class Player implements Runnable {
      * @param slot - the slot corresponding to the key pressed.
      */
     public void keyPressed(int slot) {
-     if (inputpresses.size()<3 && !keyBlock && table.slotToCard[slot]!=null ) {
+     boolean accepted = inputpresses.size()<3 && !keyBlock && table.slotToCard[slot]!=null;
+     if (accepted) {
+         pressTimes[slot] = System.nanoTime(); // published to the player's turn by the queue
          inputpresses.add(slot);
+         wake();
+     }
+     if (FlightEvents.KeyPress.TYPE.isEnabled()) {
+         FlightEvents.KeyPress event = new FlightEvents.KeyPress();
+         event.player = id;
+         event.slot = slot;
+         event.accepted = accepted;
+         event.commit();
      }
     }
 
-    private void handleKeyPress(int slot) {
-        if (tokensplaced.size() < 3) {
-            if (tokensplaced.contains(slot)) {
-                tokensplaced.remove((Object) slot);
-                table.tokensonslot[slot].remove(this);
-                env.ui.removeToken(this.id, slot);
-
-            }
-            else {
-               if(table.slotToCard[slot]!=null) { //checking that there is a card on this slot at the moment
-                tokensplaced.add(slot); //adding to the queue of the player tokens
-                table.tokensonslot[slot].add(this); // adding the player to the table list of tokens placed on slots
-                env.ui.placeToken(this.id, slot);
-                if (tokensplaced.size() == 3) {
-                    int[] cards = new int[3];
-                    for (int i = 0; i < cards.length; i++) {
-                        cards[i] = table.slotToCard[tokensplaced.get(i)];
-                    }
-                    keyBlock = true;
-                    dealer.HandleTest(cards, id);
-                }
+    void handleKeyPress(int slot) {
+        if (table.removeToken(id, slot)) {
+            env.ui.removeToken(id, slot);
+        } else if (table.countTokens(id) < 3 && table.slotToCard[slot] != null) { //checking that there is a card on this slot at the moment
+            table.placeToken(id, slot);
+            env.ui.placeToken(id, slot);
+            if (FlightEvents.TokenPlaced.TYPE.isEnabled()) {
+                FlightEvents.TokenPlaced event = new FlightEvents.TokenPlaced();
+                event.player = id;
+                event.slot = slot;
+                event.commit();
             }
+            if (table.countTokens(id) == 3) {
+                keyBlock = true;
+                if (dealer.HandleTest(id))
+                    env.metrics.inputToEnqueue.record(System.nanoTime() - pressTimes[slot]);
+                else
+                    unblock();
             }
         }
-        else if (tokensplaced.size() == 3 && tokensplaced.contains(slot)) {
-            tokensplaced.remove((Object) slot);
-            table.tokensonslot[slot].remove(this);
-            env.ui.removeToken(this.id, slot);
-        }
     }
 
     /**
@@ -203,29 +314,73 @@ public class Player implements Runnable {
     public void point() {
         int ignored = table.countCards(); // this part is just for demonstration in the unit tests
         env.ui.setScore(id, ++score);
-        long freezetime = System.currentTimeMillis() + env.config.pointFreezeMillis+1000;
-        while (System.currentTimeMillis() <= freezetime) {
-            env.ui.setFreeze(id, freezetime - System.currentTimeMillis());
-        }
-        sleeptime = 0;
-        keyBlock=false;
+        if (env.journal != null)
+            env.journal.record(Journal.SCORE, id, -1, score);
+        freeze(env.config.pointFreezeMillis);
     }
 
     /**
      * Penalize a player and perform other related actions.
      */
     public void penalty() {
-        long freezetime = System.currentTimeMillis() + env.config.penaltyFreezeMillis+1000;
-        while (System.currentTimeMillis() <= freezetime) {
-            env.ui.setFreeze(id, freezetime - System.currentTimeMillis());
-        }
-        sleeptime = 0;
-        keyBlock=false;
+        freeze(env.config.penaltyFreezeMillis);
+    }
+
+    /**
+     * Tells the player the dealer's verdict on its claim (handled on the player's turn). A cancellation never
+     * replaces a point or a penalty that was not handled yet.
+     *
+     * @param verdict - LEGAL (a point), ILLEGAL (a penalty) or CANCELED (the claim was returned without either).
+     */
+    void verdict(int verdict) {
+        if (verdict == CANCELED)
+            this.verdict.compareAndSet(NO_VERDICT, CANCELED);
+        else
+            this.verdict.set(verdict);
+        wake();
+    }
+
+    /**
+     * Lets the player press keys again (and wakes up the computer player waiting for it).
+     */
+    private void unblock() {
+        keyBlock = false;
+        if (!human)
+            wake();
     }
-     public void SetSleep(long sleeptime) {
-         this.sleeptime = sleeptime;
-     }
 
+    /**
+     * Freezes the player (key presses are ignored) for a while. The freeze is counted down by the player's freeze
+     * timer on the game clock, which wakes the player up when the display should change.
+     *
+     * @param millis - the length of the freeze in milliseconds.
+     */
+    private void freeze(long millis) {
+        env.metrics.playerFrozen(id, millis);
+        keyBlock = true;
+        freezeEnd = env.clock.currentTimeMillis() + millis;
+        updateFreeze();
+    }
+
+    /**
+     * Shows the remaining freeze time and schedules the next update for when the displayed second changes, or
+     * unfreezes the player when the freeze is over.
+     */
+    private void updateFreeze() {
+        long remaining = freezeEnd - env.clock.currentTimeMillis();
+        if (remaining <= 0) {
+            env.ui.setFreeze(id, 0);
+            if (env.journal != null)
+                env.journal.record(Journal.FREEZE, id, -1, 0);
+            unblock();
+            return;
+        }
+        long seconds = (remaining + 999) / 1000; // rounded up, so the last second of the freeze shows 1 and not 0
+        env.ui.setFreeze(id, seconds * 1000);
+        if (env.journal != null)
+            env.journal.record(Journal.FREEZE, id, -1, (int) (seconds * 1000));
+        env.clock.schedule(freezeTimer, remaining - (seconds - 1) * 1000);
+    }
 
     public int getScore() {
         return score;
@@ -0,0 +1,41 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.Random;
+
+/**
+ * A computer player strategy that presses a random slot every config.computerDelayMillis milliseconds.
+ */
+public class RandomStrategy implements ComputerStrategy {
+
+    /**
+     * The game environment object.
+     */
+    private final Env env;
+
+    /**
+     * The source of randomness of the player.
+     */
+    private final Random random;
+
+    /**
+     * @param env    - the environment object.
+     * @param random - the source of randomness of the player.
+     */
+    public RandomStrategy(Env env, Random random) {
+        this.env = env;
+        this.random = random;
+    }
+
+    @Override
+    public long thinkMillis() {
+        return env.config.computerDelayMillis;
+    }
+
+    @Override
+    public int nextPresses(int[] slots) {
+        slots[0] = random.nextInt(env.config.tableSize);
+        return 1;
+    }
+}
@@ -0,0 +1,102 @@
+package bguspl.set.ex;
+
+import java.util.Arrays;
+
+/**
+ * This class keeps track of the legal sets currently on the table, as triples of slots.
+ *
+ * @inv pairToSet[x][y] == i iff slots x and y are both in set i (-1 if there is no such set)
+ * @inv 0 <= count <= sets.length / 3
+ */
+class SetIndex {
+
+    /**
+     * The index of the set containing each pair of slots (-1 if none). Two cards complete to exactly one card,
+     * so every pair of slots belongs to at most one set.
+     */
+    private final int[][] pairToSet;
+
+    /**
+     * The slots of the sets on the table, 3 slots per set (only the first count sets are valid).
+     */
+    private final int[] sets;
+
+    /**
+     * The number of sets on the table.
+     */
+    private int count;
+
+    /**
+     * @param tableSize - the number of slots on the table.
+     */
+    SetIndex(int tableSize) {
+        pairToSet = new int[tableSize][tableSize];
+        for (int[] row : pairToSet)
+            Arrays.fill(row, -1);
+        sets = new int[3 * (tableSize * (tableSize - 1) / 6)];
+    }
+
+    /**
+     * Adds a set to the index.
+     * @param s1 - the first slot of the set.
+     * @param s2 - the second slot of the set.
+     * @param s3 - the third slot of the set.
+     */
+    synchronized void add(int s1, int s2, int s3) {
+        if (pairToSet[s1][s2] != -1 || pairToSet[s1][s3] != -1 || pairToSet[s2][s3] != -1) return;
+        sets[3 * count] = s1;
+        sets[3 * count + 1] = s2;
+        sets[3 * count + 2] = s3;
+        link(count, count);
+        ++count;
+    }
+
+    /**
+     * Removes all the sets containing a slot from the index.
+     * @param slot - the slot whose card has been removed.
+     */
+    synchronized void removeSlot(int slot) {
+        int[] row = pairToSet[slot];
+        for (int other = 0; other < row.length; ++other)
+            if (row[other] != -1)
+                remove(row[other]);
+    }
+
+    /**
+     * @return - the number of sets on the table.
+     */
+    synchronized int count() {
+        return count;
+    }
+
+    /**
+     * Copies the slots of the sets on the table.
+     * @param out - receives 3 slots per set (must have room for 3 * count() slots).
+     * @return    - the number of sets copied.
+     */
+    synchronized int copySets(int[] out) {
+        int n = Math.min(count, out.length / 3);
+        System.arraycopy(sets, 0, out, 0, 3 * n);
+        return n;
+    }
+
+    private void remove(int set) {
+        link(set, -1);
+        if (set != --count) {
+            System.arraycopy(sets, 3 * count, sets, 3 * set, 3);
+            link(set, set);
+        }
+    }
+
+    /**
+     * Points the three pairs of a set at an index.
+     * @param set   - the position of the set in sets.
+     * @param index - the index to store (-1 to clear the pairs).
+     */
+    private void link(int set, int index) {
+        int a = sets[3 * set], b = sets[3 * set + 1], c = sets[3 * set + 2];
+        pairToSet[a][b] = pairToSet[b][a] = index;
+        pairToSet[a][c] = pairToSet[c][a] = index;
+        pairToSet[b][c] = pairToSet[c][b] = index;
+    }
+}
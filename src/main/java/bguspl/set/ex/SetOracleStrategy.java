@@ -0,0 +1,102 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+import java.util.Random;
+
+/**
+ * A computer player strategy that claims the sets on the table, as read from the table's index of sets. It reacts
+ * after a random time drawn from the configured distribution, and claims three random slots instead of a set at the
+ * configured error rate, so it makes realistic claim traffic (mostly legal, some penalized).
+ */
+public class SetOracleStrategy implements ComputerStrategy {
+
+    /**
+     * The game environment object.
+     */
+    private final Env env;
+
+    /**
+     * The table the player plays on.
+     */
+    private final Table table;
+
+    /**
+     * The id of the player.
+     */
+    private final int player;
+
+    /**
+     * The source of randomness of the player.
+     */
+    private final Random random;
+
+    /**
+     * The slots of the sets on the table (3 per set).
+     */
+    private final int[] sets;
+
+    /**
+     * @param env    - the environment object.
+     * @param table  - the table the player plays on.
+     * @param player - the id of the player.
+     * @param random - the source of randomness of the player.
+     */
+    public SetOracleStrategy(Env env, Table table, int player, Random random) {
+        this.env = env;
+        this.table = table;
+        this.player = player;
+        this.random = random;
+        int slots = env.config.tableSize;
+        sets = new int[slots * (slots - 1) / 2]; // 3 slots per set, at most one set per pair of slots
+    }
+
+    /**
+     * Draws a reaction time from the configured distribution (with the configured mean).
+     */
+    @Override
+    public long thinkMillis() {
+        double mean = env.config.computerReactionMillis;
+        switch (env.config.computerReactionDistribution) {
+            case "fixed":
+                return (long) mean;
+            case "uniform":
+                return (long) (2 * mean * random.nextDouble());
+            case "exponential":
+                return (long) (-mean * Math.log(1 - random.nextDouble()));
+            default: // lognormal
+                double sigma = env.config.computerReactionSigma;
+                return (long) (mean * Math.exp(sigma * random.nextGaussian() - sigma * sigma / 2));
+        }
+    }
+
+    /**
+     * Chooses a set on the table (or three random slots at the error rate), and presses the slots needed to move
+     * the player's tokens there: first the tokens to remove, then the tokens to place.
+     */
+    @Override
+    public int nextPresses(int[] slots) {
+        long target = 0;
+        int count = table.getSets(sets);
+        if (count > 0 && random.nextDouble() >= env.config.computerErrorRate) {
+            int set = 3 * random.nextInt(count);
+            target = 1L << sets[set] | 1L << sets[set + 1] | 1L << sets[set + 2];
+        } else if (count != 0) { // a mistake, or sets are not indexed
+            if (table.countCards() < 3) return 0;
+            while (Long.bitCount(target) < 3) {
+                int slot = random.nextInt(env.config.tableSize);
+                if (table.slotToCard[slot] != null)
+                    target |= 1L << slot;
+            }
+        } else
+            return 0; // no sets on the table, wait for the dealer to reshuffle
+
+        long tokens = table.getTokens(player);
+        int presses = 0;
+        for (long remove = tokens & ~target; remove != 0; remove &= remove - 1)
+            slots[presses++] = Long.numberOfTrailingZeros(remove);
+        for (long place = target & ~tokens; place != 0; place &= place - 1)
+            slots[presses++] = Long.numberOfTrailingZeros(place);
+        return presses;
+    }
+}
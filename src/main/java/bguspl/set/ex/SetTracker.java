@@ -0,0 +1,121 @@
+package bguspl.set.ex;
+
+import bguspl.set.Env;
+
+/**
+ * This class keeps count of the legal sets among the cards still in play (i.e. in the deck or on the table).
+ *
+ * @inv sets == the number of legal sets among cards[0] to cards[size - 1]
+ * @inv position[cards[i]] == i for every 0 <= i < size, and position[x] == -1 iff card x left the game
+ */
+class SetTracker {
+
+    /**
+     * The game environment object.
+     */
+    private final Env env;
+
+    /**
+     * The cards in play (only the first size entries are valid).
+     */
+    private final int[] cards;
+
+    /**
+     * The position of each card in cards (-1 if it left the game).
+     */
+    private final int[] position;
+
+    /**
+     * The number of live sets each card in play belongs to.
+     */
+    private final int[] setsThrough;
+
+    /**
+     * The number of cards in play.
+     */
+    private int size;
+
+    /**
+     * The number of legal sets among the cards in play.
+     */
+    private int sets;
+
+    /**
+     * Constructs a tracker over the whole deck.
+     *
+     * @param env - the game environment object.
+     */
+    SetTracker(Env env) {
+        this.env = env;
+        size = env.config.deckSize;
+        cards = new int[size];
+        position = new int[size];
+        setsThrough = new int[size];
+        for (int card = 0; card < size; ++card) {
+            cards[card] = card;
+            position[card] = card;
+        }
+        if (env.config.featureSize == 3)
+            countAll();
+    }
+
+    private void countAll() {
+        for (int i = 0; i < size; ++i)
+            for (int j = i + 1; j < size; ++j) {
+                int a = cards[i], b = cards[j];
+                int c = env.util.completeSet(a, b);
+                // every set is counted once, from the pair holding its two smallest cards
+                if (c > a && c > b && position[c] != -1) {
+                    ++setsThrough[a];
+                    ++setsThrough[b];
+                    ++setsThrough[c];
+                    ++sets;
+                }
+            }
+    }
+
+    /**
+     * Takes a card out of the game (e.g. after it was part of a legal set claimed by a player).
+     *
+     * @param card - the card leaving the game.
+     * @post - sets no longer counts the sets containing card.
+     */
+    void remove(int card) {
+        int at = position[card];
+        if (at == -1) return;
+
+        cards[at] = cards[--size];
+        position[cards[at]] = at;
+        position[card] = -1;
+
+        if (env.config.featureSize == 3) {
+            // each set through card is visited from both of its other cards, each losing it once
+            for (int i = 0; i < size; ++i) {
+                int other = cards[i];
+                int third = env.util.completeSet(card, other);
+                if (third != card && position[third] != -1)
+                    --setsThrough[other];
+            }
+            sets -= setsThrough[card];
+            setsThrough[card] = 0;
+        }
+    }
+
+    /**
+     * @return - true iff there is at least one legal set among the cards in play.
+     */
+    boolean hasSets() {
+        if (env.config.featureSize == 3)
+            return sets > 0;
+        return env.util.hasSet(cards, size);
+    }
+
+    /**
+     * @return - the number of legal sets among the cards in play.
+     */
+    int countSets() {
+        if (env.config.featureSize == 3)
+            return sets;
+        return env.util.countSets(cards, size);
+    }
+}
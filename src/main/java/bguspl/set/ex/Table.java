@@ -1,6 +1,7 @@
 package bguspl.set.ex;
 
 import bguspl.set.Env;
+import bguspl.set.Journal;
 
 import java.util.*;
 import java.util.stream.Collectors;
@@ -27,7 +28,36 @@ public class Table {
      */
     protected final Integer[] cardToSlot; // slot per card (if any)
 
-    protected ArrayList<Player>[] tokensonslot;
+    /**
+     * The version of the table, advanced whenever a card is placed or removed (written by the dealer only).
+     */
+    private volatile long version;
+
+    /**
+     * The version of the table when the card in each slot last changed.
+     */
+    private final long[] slotVersions;
+
+    /**
+     * The slots each player has a token on, one bit per slot.
+     */
+    private final long[] playerTokens;
+
+    /**
+     * The players having a token on each slot, one bit per player (playerWords longs per slot).
+     */
+    private final long[] slotTokens;
+
+    /**
+     * The number of longs holding the players bits of a slot.
+     */
+    private final int playerWords;
+
+    /**
+     * The legal sets currently on the table, maintained as cards are placed and removed (null if sets are not of 3
+     * cards, in which case they are counted on demand).
+     */
+    private final SetIndex setIndex;
 
     /**
      * Constructor for testing.
@@ -41,10 +71,13 @@ public class Table {
         this.env = env;
         this.slotToCard = slotToCard;
         this.cardToSlot = cardToSlot;
-        this.tokensonslot = new ArrayList[slotToCard.length];
-        for (int i = 0; i < slotToCard.length; i++) {
-            tokensonslot[i] = new ArrayList<Player>();
-        }
+        if (slotToCard.length > Long.SIZE)
+            throw new IllegalArgumentException("table size " + slotToCard.length + " exceeds " + Long.SIZE + " slots");
+        slotVersions = new long[slotToCard.length];
+        playerTokens = new long[env.config.players];
+        playerWords = (env.config.players + Long.SIZE - 1) / Long.SIZE;
+        slotTokens = new long[slotToCard.length * playerWords];
+        setIndex = env.config.featureSize == 3 ? new SetIndex(slotToCard.length) : null;
     }
 
     /**
@@ -70,6 +103,42 @@ public class Table {
         });
     }
 
+    /**
+     * Count the number of legal sets currently on the table.
+     *
+     * @return - the number of legal sets on the table.
+     */
+    public int countSets() {
+        if (setIndex != null)
+            return setIndex.count();
+        int[] cards = Arrays.stream(slotToCard).filter(Objects::nonNull).mapToInt(Integer::intValue).toArray();
+        return env.util.countSets(cards, cards.length);
+    }
+
+    /**
+     * Copies the slots of the legal sets currently on the table.
+     *
+     * @param slots - receives 3 slots per set (must have room for 3 * countSets() slots).
+     * @return      - the number of sets copied, or -1 if sets are not indexed (i.e. are not of 3 cards).
+     */
+    public int getSets(int[] slots) {
+        return setIndex != null ? setIndex.copySets(slots) : -1;
+    }
+
+    /**
+     * Adds the sets formed by a newly placed card to the set index.
+     */
+    private void indexSets(int card, int slot) {
+        for (int other = 0; other < slotToCard.length; ++other) {
+            Integer otherCard = slotToCard[other];
+            if (other == slot || otherCard == null) continue;
+            Integer third = cardToSlot[env.util.completeSet(card, otherCard)];
+            // every new set is found twice (once from each of its other slots), add it from the lower one
+            if (third != null && third > other && third != slot)
+                setIndex.add(slot, other, third);
+        }
+    }
+
     /**
      * Count the number of cards currently on the table.
      *
@@ -91,14 +160,15 @@ public class Table {
      * @post - the card placed is on the table, in the assigned slot.
      */
     public void placeCard(int card, int slot) {
-        try {
-            Thread.sleep(env.config.tableDelayMillis);
-        } catch (InterruptedException ignored) {}
-
+        if (setIndex != null)
+            setIndex.removeSlot(slot);
         cardToSlot[card] = slot;
         slotToCard[slot] = card;
-
-        // TODO implement
+        advanceVersion(slot);
+        if (setIndex != null)
+            indexSets(card, slot);
+        if (env.journal != null)
+            env.journal.record(Journal.DEAL, -1, slot, card);
     }
 
     /**
@@ -106,23 +176,50 @@ public class Table {
      * @param slot - the slot from which to remove the card.
      */
     public void removeCard(int slot) {
-        try {
-            Thread.sleep(env.config.tableDelayMillis);
-        } catch (InterruptedException ignored) {}
-
         int card = slotToCard[slot];
+        if (setIndex != null)
+            setIndex.removeSlot(slot);
         slotToCard[slot] = null;
         cardToSlot[card] = null;
+        advanceVersion(slot);
+        if (env.journal != null)
+            env.journal.record(Journal.REMOVE, -1, slot, card);
         //return tokens
     }
 
+    /**
+     * @return - the current version of the table (changes whenever a card is placed or removed).
+     */
+    public long version() {
+        return version;
+    }
+
+    /**
+     * Checks that the card in a slot did not change since a given version of the table.
+     * @param slot    - the slot to check.
+     * @param version - a version of the table returned by version().
+     * @return        - true iff the card in the slot is the same as it was in that version.
+     */
+    public boolean isUnchangedSince(int slot, long version) {
+        return slotVersions[slot] <= version;
+    }
+
+    private void advanceVersion(int slot) {
+        long next = version + 1;
+        slotVersions[slot] = next;
+        version = next;
+    }
+
     /**
      * Places a player token on a grid slot.
      * @param player - the player the token belongs to.
      * @param slot   - the slot on which to place the token.
      */
-    public void placeToken(int player, int slot) {
-        // TODO implement
+    public synchronized void placeToken(int player, int slot) {
+        playerTokens[player] |= 1L << slot;
+        slotTokens[slot * playerWords + (player >>> 6)] |= 1L << player;
+        if (env.journal != null)
+            env.journal.record(Journal.TOKEN_PLACED, player, slot, 0);
     }
 
     /**
@@ -131,8 +228,61 @@ public class Table {
      * @param slot   - the slot from which to remove the token.
      * @return       - true iff a token was successfully removed.
      */
-    public boolean removeToken(int player, int slot) {
-        // TODO implement
-        return false;
+    public synchronized boolean removeToken(int player, int slot) {
+        if ((playerTokens[player] & (1L << slot)) == 0)
+            return false;
+        playerTokens[player] &= ~(1L << slot);
+        slotTokens[slot * playerWords + (player >>> 6)] &= ~(1L << player);
+        if (env.journal != null)
+            env.journal.record(Journal.TOKEN_REMOVED, player, slot, 0);
+        return true;
+    }
+
+    /**
+     * Removes the tokens of all players from a grid slot.
+     * @param slot    - the slot from which to remove the tokens.
+     * @param players - receives the players whose tokens were removed, one bit per player (may be null, otherwise
+     *                  must have room for (config.players + 63) / 64 longs).
+     * @return        - the number of tokens removed.
+     */
+    public synchronized int removeTokens(int slot, long[] players) {
+        int removed = 0;
+        for (int word = 0; word < playerWords; ++word) {
+            long bits = slotTokens[slot * playerWords + word];
+            slotTokens[slot * playerWords + word] = 0;
+            if (players != null)
+                players[word] = bits;
+            removed += Long.bitCount(bits);
+            for (; bits != 0; bits &= bits - 1)
+                playerTokens[(word << 6) + Long.numberOfTrailingZeros(bits)] &= ~(1L << slot);
+        }
+        if (env.journal != null && removed > 0)
+            env.journal.record(Journal.TOKENS_CLEARED, -1, slot, removed);
+        return removed;
+    }
+
+    /**
+     * @param player - the player id.
+     * @return       - the slots the player has tokens on, one bit per slot.
+     */
+    public synchronized long getTokens(int player) {
+        return playerTokens[player];
+    }
+
+    /**
+     * @param player - the player id.
+     * @param slot   - the slot to check.
+     * @return       - true iff the player has a token on the slot.
+     */
+    public synchronized boolean hasToken(int player, int slot) {
+        return (playerTokens[player] & (1L << slot)) != 0;
+    }
+
+    /**
+     * @param player - the player id.
+     * @return       - the number of tokens the player has on the table.
+     */
+    public synchronized int countTokens(int player) {
+        return Long.bitCount(playerTokens[player]);
     }
 }
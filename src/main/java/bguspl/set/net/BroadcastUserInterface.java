@@ -0,0 +1,87 @@
+package bguspl.set.net;
+
+import bguspl.set.UserInterface;
+
+/**
+ * A user interface that shows the game locally and broadcasts it to the remote players.
+ */
+public class BroadcastUserInterface implements UserInterface {
+
+    private final UserInterface ui;
+    private final GameServer server;
+
+    /**
+     * @param ui     - the local user interface.
+     * @param server - the server of the remote players.
+     */
+    public BroadcastUserInterface(UserInterface ui, GameServer server) {
+        this.ui = ui;
+        this.server = server;
+    }
+
+    @Override
+    public void placeCard(int card, int slot) {
+        ui.placeCard(card, slot);
+        server.placeCard(card, slot);
+    }
+
+    @Override
+    public void removeCard(int slot) {
+        ui.removeCard(slot);
+        server.removeCard(slot);
+    }
+
+    @Override
+    public void setCountdown(long millies, boolean warn) {
+        ui.setCountdown(millies, warn);
+        server.setCountdown(millies, warn);
+    }
+
+    @Override
+    public void setElapsed(long millies) {
+        ui.setElapsed(millies);
+        server.setElapsed(millies);
+    }
+
+    @Override
+    public void setScore(int player, int score) {
+        ui.setScore(player, score);
+        server.setScore(player, score);
+    }
+
+    @Override
+    public void setFreeze(int player, long millies) {
+        ui.setFreeze(player, millies);
+        server.setFreeze(player, millies);
+    }
+
+    @Override
+    public void placeToken(int player, int slot) {
+        ui.placeToken(player, slot);
+        server.placeToken(player, slot);
+    }
+
+    @Override
+    public void removeTokens() {
+        ui.removeTokens();
+        server.removeTokens();
+    }
+
+    @Override
+    public void removeTokens(int slot) {
+        ui.removeTokens(slot);
+        server.removeTokens(slot);
+    }
+
+    @Override
+    public void removeToken(int player, int slot) {
+        ui.removeToken(player, slot);
+        server.removeToken(player, slot);
+    }
+
+    @Override
+    public void announceWinner(int[] players) {
+        ui.announceWinner(players);
+        server.announceWinner(players);
+    }
+}
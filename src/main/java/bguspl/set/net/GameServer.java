@@ -0,0 +1,441 @@
+package bguspl.set.net;
+
+import bguspl.set.Config;
+import bguspl.set.GameLog;
+import bguspl.set.UserInterface;
+import bguspl.set.ex.Player;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.logging.Level;
+
+/**
+ * A non-blocking server for remote players (see Protocol). A single selector thread accepts the connections, reads
+ * their key presses and writes them the changes of the game, so hundreds of connections cost one thread.
+ * Each connection plays one of the remote players: its presses are passed on to Player.keyPressed as if they were
+ * made on the keyboard.
+ * The server is the user interface of the remote players: the game's changes are encoded by the game threads into
+ * a shared buffer, which the selector thread copies to the connections. The server keeps the state of the table, so
+ * a player connecting in the middle of the game first receives the table as it is. The game never waits for the
+ * network: a connection that falls more than OUTPUT_LIMIT bytes behind is closed.
+ */
+public class GameServer implements UserInterface, Closeable {
+
+    /**
+     * The most bytes queued for a connection before it is considered too slow and closed.
+     */
+    static final int OUTPUT_LIMIT = 1 << 16;
+
+    /**
+     * The size of the buffer of the received bytes of a connection.
+     */
+    private static final int INPUT_SIZE = 256;
+
+    /**
+     * A connection of a remote player (owned by the selector thread).
+     */
+    private static class Connection {
+
+        final SocketChannel channel;
+        final int player;
+        final ByteBuffer in = ByteBuffer.allocate(INPUT_SIZE);
+        final ByteBuffer out = ByteBuffer.allocate(OUTPUT_LIMIT);
+        SelectionKey key;
+
+        Connection(SocketChannel channel, int player) {
+            this.channel = channel;
+            this.player = player;
+        }
+    }
+
+    private final Config config;
+    private final GameLog log;
+
+    /**
+     * The state of the table, for the players connecting later (guarded by this).
+     */
+    private final int[] slotCards;
+    private final long[] slotTokens;
+    private final int playerWords;
+    private final int[] scores;
+    private final long[] freezes;
+    private int[] winners;
+
+    /**
+     * The frames not copied to the connections yet (guarded by this, in write mode).
+     */
+    private ByteBuffer pending = ByteBuffer.allocate(4096);
+
+    /**
+     * The number of open connections (guarded by this). The changes are not encoded while there are none.
+     */
+    private int connected;
+
+    /**
+     * True iff the selector was woken up for the pending frames and did not take them yet (guarded by this).
+     */
+    private boolean woken;
+
+    /**
+     * The open connections, and the connection of each remote player (null if none). Owned by the selector thread.
+     */
+    private final List<Connection> connections = new ArrayList<>();
+    private Connection[] owners;
+
+    /**
+     * The remote players, in the order they are assigned to connections.
+     */
+    private Player[] players;
+
+    private Selector selector;
+    private ServerSocketChannel server;
+    private Thread thread;
+    private volatile boolean closed;
+
+    /**
+     * @param config - the game configuration.
+     * @param log    - the log of the game.
+     */
+    public GameServer(Config config, GameLog log) {
+        this.config = config;
+        this.log = log;
+        slotCards = new int[config.tableSize];
+        Arrays.fill(slotCards, -1);
+        playerWords = (config.players + Long.SIZE - 1) / Long.SIZE;
+        slotTokens = new long[config.tableSize * playerWords];
+        scores = new int[config.players];
+        freezes = new long[config.players];
+    }
+
+    /**
+     * Starts accepting remote players.
+     *
+     * @param address - the address to listen on (port 0 for any free port).
+     * @param players - the remote players, assigned to the connections in order.
+     */
+    public synchronized void start(InetSocketAddress address, Player[] players) throws IOException {
+        this.players = players;
+        owners = new Connection[players.length];
+        selector = Selector.open();
+        server = ServerSocketChannel.open();
+        server.bind(address);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+        thread = new Thread(this::serve, "game-server");
+        thread.setDaemon(true);
+        thread.start();
+        log.log(Level.INFO, "game server listening on port " + getPort() + " for " + players.length + " remote players");
+    }
+
+    /**
+     * @return - the port the server listens on.
+     */
+    public int getPort() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /**
+     * The main loop of the selector thread.
+     */
+    private void serve() {
+        try {
+            while (!closed) {
+                selector.select();
+                distribute();
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    if (!key.isValid()) continue;
+                    if (key.isAcceptable()) {
+                        accept();
+                        continue;
+                    }
+                    Connection connection = (Connection) key.attachment();
+                    if (key.isReadable())
+                        read(connection);
+                    if (key.isValid() && key.isWritable())
+                        write(connection);
+                }
+            }
+        } catch (IOException e) {
+            log.log(Level.SEVERE, "game server failed: " + e);
+        } finally {
+            for (Connection connection : new ArrayList<>(connections))
+                disconnect(connection, null);
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException ignored) {
+            }
+        }
+    }
+
+    /**
+     * Copies the pending frames to every connection and writes as much as the connections take.
+     */
+    private void distribute() {
+        synchronized (this) {
+            woken = false;
+            if (pending.position() == 0) return;
+            pending.flip();
+            for (Connection connection : connections)
+                if (connection.out.remaining() >= pending.remaining())
+                    connection.out.put(pending.duplicate());
+                else
+                    connection.out.position(connection.out.limit()); // marks it too slow, closed below
+            pending.clear();
+        }
+        for (Connection connection : new ArrayList<>(connections))
+            if (!connection.out.hasRemaining())
+                disconnect(connection, "it fell too far behind");
+            else
+                write(connection);
+    }
+
+    private void accept() throws IOException {
+        SocketChannel channel = server.accept();
+        if (channel == null) return;
+        int player = 0;
+        while (player < owners.length && owners[player] != null)
+            ++player;
+        if (player == owners.length) {
+            log.log(Level.INFO, "remote connection from " + channel.getRemoteAddress() + " refused, all players are taken");
+            channel.close();
+            return;
+        }
+
+        channel.configureBlocking(false);
+        channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        Connection connection = new Connection(channel, player);
+        owners[player] = connection;
+        synchronized (this) {
+            Protocol.welcome(connection.out, players[player].id, config.players, config.rows, config.columns);
+            writeState(connection.out);
+            connections.add(connection);
+            ++connected;
+        }
+        connection.key = channel.register(selector, SelectionKey.OP_READ, connection);
+        log.log(Level.INFO, "remote player " + players[player].id + " connected from " + channel.getRemoteAddress());
+        write(connection);
+    }
+
+    private void read(Connection connection) {
+        int read;
+        try {
+            read = connection.channel.read(connection.in);
+        } catch (IOException e) {
+            read = -1;
+        }
+        if (read < 0) {
+            disconnect(connection, "the connection was closed");
+            return;
+        }
+
+        ByteBuffer in = connection.in;
+        in.flip();
+        while (true) {
+            int size = Protocol.frameSize(in);
+            if (size < 0 || size > 0 && in.get(in.position()) != Protocol.PRESS) {
+                disconnect(connection, "it sent an unknown message");
+                return;
+            }
+            if (size == 0 || in.remaining() < size) break;
+            int slot = in.get(in.position() + 1) & 0xFF;
+            in.position(in.position() + size);
+            if (slot < config.tableSize)
+                players[connection.player].keyPressed(slot);
+        }
+        in.compact();
+    }
+
+    private void write(Connection connection) {
+        ByteBuffer out = connection.out;
+        if (out.position() == 0) return;
+        out.flip();
+        try {
+            connection.channel.write(out);
+        } catch (IOException e) {
+            out.clear();
+            disconnect(connection, "the connection was closed");
+            return;
+        }
+        out.compact();
+        connection.key.interestOps(out.position() > 0 ? SelectionKey.OP_READ | SelectionKey.OP_WRITE : SelectionKey.OP_READ);
+    }
+
+    private void disconnect(Connection connection, String reason) {
+        if (owners[connection.player] != connection) return;
+        owners[connection.player] = null;
+        synchronized (this) {
+            connections.remove(connection);
+            --connected;
+        }
+        if (connection.key != null)
+            connection.key.cancel();
+        try {
+            connection.channel.close();
+        } catch (IOException ignored) {
+        }
+        if (reason != null)
+            log.log(Level.INFO, "remote player " + players[connection.player].id + " disconnected, " + reason);
+    }
+
+    /**
+     * Writes the current state of the table as frames (called with the lock held).
+     */
+    private void writeState(ByteBuffer out) {
+        for (int slot = 0; slot < slotCards.length; ++slot) {
+            if (slotCards[slot] >= 0)
+                Protocol.placeCard(out, slot, slotCards[slot]);
+            for (int word = 0; word < playerWords; ++word)
+                for (long bits = slotTokens[slot * playerWords + word]; bits != 0; bits &= bits - 1)
+                    Protocol.placeToken(out, (word << 6) + Long.numberOfTrailingZeros(bits), slot);
+        }
+        for (int player = 0; player < scores.length; ++player) {
+            if (scores[player] != 0)
+                Protocol.score(out, player, scores[player]);
+            if (freezes[player] > 0)
+                Protocol.freeze(out, player, freezes[player]);
+        }
+        if (winners != null)
+            Protocol.winners(out, winners);
+    }
+
+    /**
+     * @param size - the size of the frame about to be encoded.
+     * @return     - the buffer of the pending frames, with room for the frame (called with the lock held).
+     */
+    private ByteBuffer pending(int size) {
+        if (pending.remaining() < size) {
+            ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * pending.capacity(), pending.position() + size));
+            pending.flip();
+            pending = larger.put(pending);
+        }
+        return pending;
+    }
+
+    /**
+     * Wakes up the selector thread to send the pending frames (called with the lock held).
+     */
+    private void wakeUp() {
+        if (!woken) {
+            woken = true;
+            selector.wakeup();
+        }
+    }
+
+    @Override
+    public synchronized void placeCard(int card, int slot) {
+        slotCards[slot] = card;
+        if (connected == 0) return;
+        Protocol.placeCard(pending(Protocol.MAX_FIXED_FRAME), slot, card);
+        wakeUp();
+    }
+
+    @Override
+    public synchronized void removeCard(int slot) {
+        slotCards[slot] = -1;
+        if (connected == 0) return;
+        Protocol.removeCard(pending(Protocol.MAX_FIXED_FRAME), slot);
+        wakeUp();
+    }
+
+    @Override
+    public void setCountdown(long millies, boolean warn) {
+        // the timer is not sent, it changes too often to be worth the traffic
+    }
+
+    @Override
+    public void setElapsed(long millies) {
+        // the timer is not sent, it changes too often to be worth the traffic
+    }
+
+    @Override
+    public synchronized void setScore(int player, int score) {
+        scores[player] = score;
+        if (connected == 0) return;
+        Protocol.score(pending(Protocol.MAX_FIXED_FRAME), player, score);
+        wakeUp();
+    }
+
+    @Override
+    public synchronized void setFreeze(int player, long millies) {
+        freezes[player] = millies;
+        if (connected == 0) return;
+        Protocol.freeze(pending(Protocol.MAX_FIXED_FRAME), player, millies);
+        wakeUp();
+    }
+
+    @Override
+    public synchronized void placeToken(int player, int slot) {
+        slotTokens[slot * playerWords + (player >>> 6)] |= 1L << player;
+        if (connected == 0) return;
+        Protocol.placeToken(pending(Protocol.MAX_FIXED_FRAME), player, slot);
+        wakeUp();
+    }
+
+    @Override
+    public synchronized void removeTokens() {
+        Arrays.fill(slotTokens, 0);
+        if (connected == 0) return;
+        Protocol.removeAllTokens(pending(Protocol.MAX_FIXED_FRAME));
+        wakeUp();
+    }
+
+    @Override
+    public synchronized void removeTokens(int slot) {
+        Arrays.fill(slotTokens, slot * playerWords, (slot + 1) * playerWords, 0);
+        if (connected == 0) return;
+        Protocol.removeSlotTokens(pending(Protocol.MAX_FIXED_FRAME), slot);
+        wakeUp();
+    }
+
+    @Override
+    public synchronized void removeToken(int player, int slot) {
+        slotTokens[slot * playerWords + (player >>> 6)] &= ~(1L << player);
+        if (connected == 0) return;
+        Protocol.removeToken(pending(Protocol.MAX_FIXED_FRAME), player, slot);
+        wakeUp();
+    }
+
+    @Override
+    public synchronized void announceWinner(int[] players) {
+        winners = players.clone();
+        if (connected == 0) return;
+        Protocol.winners(pending(3 + 2 * players.length), players);
+        wakeUp();
+    }
+
+    /**
+     * Stops the server and closes all the connections.
+     */
+    @Override
+    public void close() {
+        Thread serving;
+        synchronized (this) {
+            closed = true;
+            serving = thread;
+            if (selector != null)
+                selector.wakeup();
+        }
+        if (serving != null) {
+            try {
+                serving.join();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
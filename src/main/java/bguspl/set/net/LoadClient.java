@@ -0,0 +1,179 @@
+package bguspl.set.net;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A load generator for the game server: opens many connections from a single selector thread, presses random
+ * slots on each of them at a steady rate, and counts the frames received. For testing the server on loopback, e.g.
+ * with a headless game of RemotePlayers=500.
+ */
+public class LoadClient {
+
+    /**
+     * The totals of a run.
+     */
+    public static class Result {
+
+        /**
+         * The number of connections that were assigned a player, and that were refused.
+         */
+        public int welcomed, refused;
+
+        /**
+         * The number of key presses sent, and of frames and bytes received.
+         */
+        public long presses, frames, bytes;
+
+        /**
+         * The length of the run in milliseconds.
+         */
+        public long millis;
+
+        @Override
+        public String toString() {
+            double seconds = Math.max(1, millis) / 1000.0;
+            return String.format("%d connections welcomed, %d refused; %d presses sent (%.0f/s), %d frames received " +
+                            "(%.0f/s, %.0f KB/s)", welcomed, refused, presses, presses / seconds, frames,
+                    frames / seconds, bytes / seconds / 1024);
+        }
+    }
+
+    /**
+     * A connection of the client.
+     */
+    private static class Connection {
+
+        final SocketChannel channel;
+        final ByteBuffer in = ByteBuffer.allocate(GameServer.OUTPUT_LIMIT);
+        final ByteBuffer out = ByteBuffer.allocate(256);
+        int tableSize; // 0 until welcomed
+        long nextPress;
+
+        Connection(SocketChannel channel) {
+            this.channel = channel;
+        }
+    }
+
+    private final InetSocketAddress address;
+    private final int connections;
+    private final double pressesPerSecond;
+    private final Random random;
+
+    /**
+     * @param address          - the address of the server.
+     * @param connections      - the number of connections to open.
+     * @param pressesPerSecond - the number of key presses per second of each connection.
+     * @param seed             - the seed of the random presses.
+     */
+    public LoadClient(InetSocketAddress address, int connections, double pressesPerSecond, long seed) {
+        this.address = address;
+        this.connections = connections;
+        this.pressesPerSecond = pressesPerSecond;
+        random = new Random(seed);
+    }
+
+    /**
+     * Connects, generates the load and disconnects.
+     *
+     * @param millis - how long to generate the load for.
+     * @return       - the totals of the run.
+     */
+    public Result run(long millis) throws IOException {
+        Result result = new Result();
+        long interval = (long) (TimeUnit.SECONDS.toNanos(1) / pressesPerSecond);
+        long start = System.nanoTime(), end = start + TimeUnit.MILLISECONDS.toNanos(millis);
+        List<Connection> open = new ArrayList<>();
+        try (Selector selector = Selector.open()) {
+            for (int i = 0; i < connections; ++i) {
+                SocketChannel channel = SocketChannel.open(address);
+                channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+                channel.configureBlocking(false);
+                Connection connection = new Connection(channel);
+                connection.nextPress = start + (long) (random.nextDouble() * interval); // spread the presses
+                channel.register(selector, SelectionKey.OP_READ, connection);
+                open.add(connection);
+            }
+
+            for (long now = System.nanoTime(); now < end; now = System.nanoTime()) {
+                long next = end;
+                for (Connection connection : open) {
+                    if (connection.tableSize > 0 && connection.nextPress <= now) {
+                        connection.out.clear();
+                        Protocol.press(connection.out, random.nextInt(connection.tableSize));
+                        connection.out.flip();
+                        if (connection.channel.isOpen())
+                            connection.channel.write(connection.out);
+                        ++result.presses;
+                        connection.nextPress += interval;
+                    }
+                    next = Math.min(next, connection.nextPress);
+                }
+
+                selector.select(Math.max(1, TimeUnit.NANOSECONDS.toMillis(next - now)));
+                Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+                while (keys.hasNext()) {
+                    SelectionKey key = keys.next();
+                    keys.remove();
+                    receive((Connection) key.attachment(), key, result);
+                }
+            }
+        } finally {
+            for (Connection connection : open)
+                connection.channel.close();
+        }
+        result.millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return result;
+    }
+
+    private static void receive(Connection connection, SelectionKey key, Result result) throws IOException {
+        int read = connection.channel.read(connection.in);
+        if (read < 0) {
+            if (connection.tableSize == 0)
+                ++result.refused;
+            key.cancel();
+            connection.channel.close();
+            return;
+        }
+        result.bytes += read;
+
+        ByteBuffer in = connection.in;
+        in.flip();
+        for (int size = Protocol.frameSize(in); size > 0 && in.remaining() >= size; size = Protocol.frameSize(in)) {
+            if (in.get(in.position()) == Protocol.WELCOME) {
+                connection.tableSize = in.get(in.position() + 5) * in.get(in.position() + 6);
+                ++result.welcomed;
+            }
+            in.position(in.position() + size);
+            ++result.frames;
+        }
+        in.compact();
+    }
+
+    /**
+     * Runs the load client.
+     *
+     * @param args - the host (default localhost), the port (default 7413), the number of connections (default 100),
+     *             the key presses per second of each connection (default 5) and the number of seconds to run
+     *             (default 10).
+     */
+    public static void main(String[] args) throws IOException {
+        String host = args.length > 0 ? args[0] : "localhost";
+        int port = args.length > 1 ? Integer.parseInt(args[1]) : 7413;
+        int connections = args.length > 2 ? Integer.parseInt(args[2]) : 100;
+        double rate = args.length > 3 ? Double.parseDouble(args[3]) : 5;
+        long seconds = args.length > 4 ? Long.parseLong(args[4]) : 10;
+        LoadClient client = new LoadClient(new InetSocketAddress(host, port), connections, rate, System.nanoTime());
+        System.out.println(client.run(TimeUnit.SECONDS.toMillis(seconds)));
+    }
+}
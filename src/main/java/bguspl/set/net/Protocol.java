@@ -0,0 +1,113 @@
+package bguspl.set.net;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The binary protocol between the game server and remote players. Every message is a frame starting with a type
+ * byte, followed by a payload of a fixed size per type (except WINNERS, which is prefixed by a count). Numbers are
+ * big-endian: slots are 1 byte, players and cards 2 bytes, scores and times 4 bytes.
+ * <p>
+ * Client to server: PRESS [slot].
+ * <p>
+ * Server to client: WELCOME [player][players][rows][columns] once the connection is assigned a player, then the
+ * current state of the table as ordinary frames, then every change: PLACE_CARD [slot][card], REMOVE_CARD [slot],
+ * PLACE_TOKEN [player][slot], REMOVE_TOKEN [player][slot], REMOVE_SLOT_TOKENS [slot], REMOVE_ALL_TOKENS,
+ * SCORE [player][score], FREEZE [player][millis] and WINNERS [count][player]...
+ * A connection that cannot be assigned a player (all the remote players are taken) is closed.
+ */
+public final class Protocol {
+
+    private Protocol() {
+    }
+
+    /**
+     * The client message types.
+     */
+    public static final byte PRESS = 1;
+
+    /**
+     * The server message types.
+     */
+    public static final byte WELCOME = 10, PLACE_CARD = 11, REMOVE_CARD = 12, PLACE_TOKEN = 13, REMOVE_TOKEN = 14,
+            REMOVE_SLOT_TOKENS = 15, REMOVE_ALL_TOKENS = 16, SCORE = 17, FREEZE = 18, WINNERS = 19;
+
+    /**
+     * The size of the longest fixed-size frame.
+     */
+    public static final int MAX_FIXED_FRAME = 7;
+
+    /**
+     * @param frame - a buffer starting with a frame (at its position), ready for reading.
+     * @return      - the size of the frame, 0 if not enough of it was received to tell, or -1 if the type is unknown.
+     */
+    public static int frameSize(ByteBuffer frame) {
+        if (!frame.hasRemaining()) return 0;
+        int at = frame.position();
+        switch (frame.get(at)) {
+            case PRESS:
+            case REMOVE_CARD:
+            case REMOVE_SLOT_TOKENS:
+                return 2;
+            case REMOVE_ALL_TOKENS:
+                return 1;
+            case PLACE_CARD:
+            case PLACE_TOKEN:
+            case REMOVE_TOKEN:
+                return 4;
+            case WELCOME:
+            case SCORE:
+            case FREEZE:
+                return 7;
+            case WINNERS:
+                return frame.remaining() < 3 ? 0 : 3 + 2 * frame.getShort(at + 1);
+            default:
+                return -1;
+        }
+    }
+
+    public static void press(ByteBuffer out, int slot) {
+        out.put(PRESS).put((byte) slot);
+    }
+
+    public static void welcome(ByteBuffer out, int player, int players, int rows, int columns) {
+        out.put(WELCOME).putShort((short) player).putShort((short) players).put((byte) rows).put((byte) columns);
+    }
+
+    public static void placeCard(ByteBuffer out, int slot, int card) {
+        out.put(PLACE_CARD).put((byte) slot).putShort((short) card);
+    }
+
+    public static void removeCard(ByteBuffer out, int slot) {
+        out.put(REMOVE_CARD).put((byte) slot);
+    }
+
+    public static void placeToken(ByteBuffer out, int player, int slot) {
+        out.put(PLACE_TOKEN).putShort((short) player).put((byte) slot);
+    }
+
+    public static void removeToken(ByteBuffer out, int player, int slot) {
+        out.put(REMOVE_TOKEN).putShort((short) player).put((byte) slot);
+    }
+
+    public static void removeSlotTokens(ByteBuffer out, int slot) {
+        out.put(REMOVE_SLOT_TOKENS).put((byte) slot);
+    }
+
+    public static void removeAllTokens(ByteBuffer out) {
+        out.put(REMOVE_ALL_TOKENS);
+    }
+
+    public static void score(ByteBuffer out, int player, int score) {
+        out.put(SCORE).putShort((short) player).putInt(score);
+    }
+
+    public static void freeze(ByteBuffer out, int player, long millis) {
+        out.put(FREEZE).putShort((short) player).putInt((int) Math.min(millis, Integer.MAX_VALUE));
+    }
+
+    public static void winners(ByteBuffer out, int[] players) {
+        out.put(WINNERS).putShort((short) players.length);
+        for (int player : players)
+            out.putShort((short) player);
+    }
+}
@@ -0,0 +1,169 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ActorTest {
+
+    private final ActorPool pool = new ActorPool("test-actor", 4);
+
+    @AfterEach
+    void tearDown() {
+        pool.close();
+    }
+
+    private Env env(Clock clock) {
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setLevel(Level.WARNING);
+        Config config = new Config(logger, new Properties());
+        return new Env(logger, config, new HeadlessUserInterface(config, false), new UtilImpl(config), clock,
+                new GameLog(logger), null, new GameMetrics(config.players), pool);
+    }
+
+    /**
+     * Counts the messages sent to it (its mailbox is a counter), and whether its turns ever overlapped.
+     */
+    private static class Counter extends Actor {
+
+        final AtomicInteger mailbox = new AtomicInteger();
+        final AtomicInteger running = new AtomicInteger();
+        volatile boolean overlapped;
+        int received;
+
+        Counter(Env env) {
+            super(env);
+        }
+
+        void send() {
+            mailbox.incrementAndGet();
+            wake();
+        }
+
+        @Override
+        protected void receive() {
+            if (running.incrementAndGet() != 1)
+                overlapped = true;
+            received += mailbox.getAndSet(0);
+            running.decrementAndGet();
+        }
+
+        @Override
+        protected void failed(RuntimeException e) {
+            throw e;
+        }
+    }
+
+    @Test
+    void messagesFromManyThreads_AreHandledOneTurnAtATime() throws InterruptedException {
+        Counter counter = new Counter(env(new RealTimeClock()));
+        Thread[] senders = new Thread[4];
+        for (int i = 0; i < senders.length; i++) {
+            senders[i] = new Thread(() -> {
+                for (int j = 0; j < 10_000; j++)
+                    counter.send();
+            });
+            senders[i].start();
+        }
+        for (Thread sender : senders)
+            sender.join();
+
+        pool.close(); // waits for the queued turns
+        assertEquals(40_000, counter.received);
+        assertFalse(counter.overlapped);
+    }
+
+    @Test
+    void virtualClock_WaitsForTheActorsToBeIdle() throws InterruptedException {
+        VirtualClock clock = new VirtualClock();
+        List<Long> times = new ArrayList<>();
+        CountDownLatch done = new CountDownLatch(1);
+        Actor actor = new Actor(env(clock)) {
+            private final Runnable timer = this::wake;
+
+            @Override
+            protected void receive() {
+                times.add(clock.currentTimeMillis());
+                if (times.size() == 5) {
+                    stop();
+                    return;
+                }
+                clock.schedule(timer, 100);
+                for (long spin = System.nanoTime() + 1_000_000; System.nanoTime() < spin; )
+                    Thread.onSpinWait(); // time stands still while the actor works
+            }
+
+            @Override
+            protected void failed(RuntimeException e) {
+            }
+
+            @Override
+            protected void finished() {
+                done.countDown();
+            }
+        };
+        clock.schedule(() -> actor.wake(), 0);
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of(0L, 100L, 200L, 300L, 400L), times);
+        assertTrue(actor.isStopped());
+    }
+
+    @Test
+    void errorOnATurn_FinishesTheActorAndReleasesTheClock() throws InterruptedException {
+        VirtualClock clock = new VirtualClock();
+        CountDownLatch finished = new CountDownLatch(1), later = new CountDownLatch(1);
+        Actor actor = new Actor(env(clock)) {
+            @Override
+            protected void receive() {
+                throw new AssertionError("expected by the test");
+            }
+
+            @Override
+            protected void failed(RuntimeException e) {
+            }
+
+            @Override
+            protected void finished() {
+                finished.countDown();
+            }
+        };
+        clock.schedule(() -> actor.wake(), 0);
+        clock.schedule(later::countDown, 100);
+
+        assertTrue(finished.await(10, TimeUnit.SECONDS));
+        assertTrue(later.await(10, TimeUnit.SECONDS)); // the clock moved on
+        assertTrue(actor.isStopped());
+    }
+
+    @Test
+    void wakeAfterClose_ReleasesTheClock() throws InterruptedException {
+        VirtualClock clock = new VirtualClock();
+        Actor actor = new Actor(env(clock)) {
+            @Override
+            protected void receive() {
+                fail("no turns after the pool is closed");
+            }
+
+            @Override
+            protected void failed(RuntimeException e) {
+            }
+        };
+        pool.close();
+        CountDownLatch later = new CountDownLatch(1);
+        clock.schedule(() -> actor.wake(), 0);
+        clock.schedule(later::countDown, 100);
+
+        assertTrue(later.await(10, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,46 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class CardImagesTest {
+
+    private final Config config = new Config(Logger.getAnonymousLogger(), new Properties());
+
+    @Test
+    void get_SharedAndLoadsOnDemand() {
+        CardImages images = CardImages.get(config);
+        assertSame(images, CardImages.get(new Config(Logger.getAnonymousLogger(), new Properties())));
+        assertEquals(258, images.card(80).getWidth(null));
+        assertSame(images.card(80), images.card(80));
+        assertNotNull(images.emptyCard());
+    }
+
+    @Test
+    void packAtlas(@TempDir Path directory) throws IOException {
+        CardImages.packAtlas(config, directory);
+
+        Properties properties = new Properties();
+        try (InputStream is = Files.newInputStream(directory.resolve("cards/atlas.properties"))) {
+            properties.load(is);
+        }
+        assertEquals("81", properties.getProperty("Cards"));
+        assertEquals("10", properties.getProperty("Columns"));
+        BufferedImage atlas = ImageIO.read(directory.resolve("cards/atlas.png").toFile());
+        assertEquals(10 * 258, atlas.getWidth());
+        assertEquals(9 * 167, atlas.getHeight());
+    }
+}
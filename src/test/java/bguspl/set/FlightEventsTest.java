@@ -0,0 +1,70 @@
+package bguspl.set;
+
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FlightEventsTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void events_AreDisabledByDefault() {
+        assertFalse(FlightEvents.KeyPress.TYPE.isEnabled());
+        assertFalse(FlightEvents.ClaimVerified.TYPE.isEnabled());
+        assertFalse(FlightEvents.Reshuffle.TYPE.isEnabled());
+    }
+
+    @Test
+    void recording_CapturesEveryClaimVerified() throws IOException {
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setLevel(Level.WARNING);
+        Properties properties = new Properties();
+        properties.setProperty("HumanPlayers", "0");
+        properties.setProperty("ComputerPlayers", "2");
+        properties.setProperty("ComputerStrategy", "oracle");
+        properties.setProperty("RandomSeed", "3");
+        Config config = new Config(logger, properties);
+        Env env = new Env(logger, config, new HeadlessUserInterface(config, false), new UtilImpl(config),
+                new VirtualClock(), new GameLog(logger));
+        Player[] players = new Player[config.players];
+        Table table = new Table(env);
+        Dealer dealer = new Dealer(env, table, players);
+        for (int i = 0; i < players.length; i++)
+            players[i] = new Player(env, dealer, table, i, false);
+
+        Path file = directory.resolve("game.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(FlightEvents.ClaimVerified.class).withoutThreshold();
+            recording.enable(FlightEvents.CardsDealt.class).withoutThreshold();
+            recording.start();
+            dealer.run();
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        long verified = events.stream().filter(e -> e.getEventType().getName().equals("bguspl.set.ClaimVerified")).count();
+        long legal = events.stream().filter(e -> e.getEventType().getName().equals("bguspl.set.ClaimVerified")
+                && e.getBoolean("legal")).count();
+        assertEquals(dealer.getClaimCount(), verified);
+        assertEquals(dealer.getSetCount(), legal);
+        assertTrue(events.stream().anyMatch(e -> e.getEventType().getName().equals("bguspl.set.CardsDealt")));
+        assertFalse(FlightEvents.ClaimVerified.TYPE.isEnabled());
+    }
+}
@@ -0,0 +1,68 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GameHostTest {
+
+    private final Logger logger = Logger.getAnonymousLogger();
+    private GameHost host;
+
+    @AfterEach
+    void tearDown() {
+        if (host != null)
+            host.close();
+    }
+
+    private static Properties computerGame(boolean virtualClock) {
+        Properties properties = new Properties();
+        properties.setProperty("HumanPlayers", "0");
+        properties.setProperty("ComputerPlayers", "2");
+        properties.setProperty("ComputerStrategy", "oracle");
+        properties.setProperty("VirtualClock", Boolean.toString(virtualClock));
+        return properties;
+    }
+
+    @Test
+    void games_RunConcurrentlyAndAreReapedWhenFinished() throws InterruptedException {
+        logger.setLevel(Level.WARNING);
+        host = new GameHost(logger, 3, 60_000);
+        GameHost.Game[] games = new GameHost.Game[3];
+        for (int i = 0; i < games.length; i++)
+            games[i] = host.create(computerGame(true));
+        assertThrows(IllegalStateException.class, () -> host.create(computerGame(true)));
+
+        for (GameHost.Game game : games)
+            host.start(game.id);
+        for (GameHost.Game game : games) {
+            assertTrue(host.await(game.id, 30_000));
+            assertEquals(GameHost.State.FINISHED, game.getState());
+            assertEquals(game.dealer.getSetCount(), Arrays.stream(game.getScores()).sum());
+            assertEquals(game.dealer.getSetCount(), game.env.metrics.getLegalClaims());
+            assertEquals(0, game.env.metrics.getThreads());
+        }
+        assertThrows(IllegalStateException.class, () -> host.start(games[0].id));
+        assertEquals(0, host.reap()); // kept for a minute
+        assertEquals(3, host.games().size());
+    }
+
+    @Test
+    void terminate_FinishesARunningGame() throws InterruptedException {
+        logger.setLevel(Level.WARNING);
+        host = new GameHost(logger, 10, 0);
+        GameHost.Game game = host.create(computerGame(false));
+        host.start(game.id);
+        host.terminate(game.id);
+        assertTrue(host.await(game.id, 30_000));
+        assertEquals(GameHost.State.FINISHED, game.getState());
+        assertEquals(1, host.reap());
+        assertThrows(IllegalArgumentException.class, () -> host.get(game.id));
+    }
+}
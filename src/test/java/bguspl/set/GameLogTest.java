@@ -0,0 +1,81 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.logging.Handler;
+import java.util.logging.Level;
+import java.util.logging.LogRecord;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GameLogTest {
+
+    private Logger logger;
+    private final List<LogRecord> records = new ArrayList<>();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private volatile boolean blocking;
+
+    @BeforeEach
+    void setUp() {
+        logger = Logger.getAnonymousLogger();
+        logger.setUseParentHandlers(false);
+        logger.setLevel(Level.INFO);
+        logger.addHandler(new Handler() {
+            @Override
+            public void publish(LogRecord record) {
+                try {
+                    if (blocking) release.await();
+                } catch (InterruptedException ignored) {
+                }
+                synchronized (records) {
+                    records.add(record);
+                }
+            }
+
+            @Override
+            public void flush() {
+            }
+
+            @Override
+            public void close() {
+            }
+        });
+    }
+
+    @Test
+    void close_WritesFormattedRecordsInOrder() {
+        GameLog log = new GameLog(logger);
+        log.log(Level.SEVERE, GameLog.Event.PLACE_CARD, 7, 3);
+        log.log(Level.FINE, GameLog.Event.REMOVE_CARD, 0, 3); // below the logger's level
+        log.log(Level.INFO, "hello");
+        log.log(Level.INFO, GameLog.Event.THREAD_STARTING);
+        log.close();
+
+        assertEquals(3, records.size());
+        assertEquals("placing card 7 in slot 3", records.get(0).getMessage());
+        assertEquals(Level.SEVERE, records.get(0).getLevel());
+        assertEquals("hello", records.get(1).getMessage());
+        assertEquals("Thread " + Thread.currentThread().getName() + " starting.", records.get(2).getMessage());
+    }
+
+    @Test
+    void append_DropsWhenFull() {
+        blocking = true;
+        GameLog log = new GameLog(logger, 4);
+        for (int i = 0; i < 20; ++i)
+            log.log(Level.INFO, GameLog.Event.SET_SCORE, 0, i);
+        release.countDown();
+        log.close();
+
+        assertTrue(records.size() < 20);
+        String last = records.get(records.size() - 1).getMessage();
+        assertTrue(last.endsWith("log records were dropped (the log buffer was full)"), last);
+        assertEquals("setting player 0 score to 0", records.get(0).getMessage());
+    }
+}
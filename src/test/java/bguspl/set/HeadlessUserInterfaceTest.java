@@ -0,0 +1,45 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class HeadlessUserInterfaceTest {
+
+    private final Config config = new Config(Logger.getAnonymousLogger(), new Properties());
+
+    @Test
+    void scoresAndWinners() {
+        HeadlessUserInterface ui = new HeadlessUserInterface(config, false);
+        assertNull(ui.getWinners());
+        ui.setScore(1, 4);
+        ui.announceWinner(new int[]{1});
+        assertEquals(4, ui.getScore(1));
+        assertArrayEquals(new int[]{1}, ui.getWinners());
+        assertEquals(0, ui.getEvents().length);
+    }
+
+    @Test
+    void getEvents_RecordsCalls() {
+        HeadlessUserInterface ui = new HeadlessUserInterface(config, true);
+        ui.placeCard(80, 11);
+        ui.placeToken(1, 3);
+        ui.removeTokens();
+
+        long[] events = ui.getEvents();
+        assertEquals(6, events.length);
+        assertEquals(HeadlessUserInterface.PLACE_CARD, HeadlessUserInterface.eventType(events[0]));
+        assertEquals(-1, HeadlessUserInterface.eventPlayer(events[0]));
+        assertEquals(11, HeadlessUserInterface.eventSlot(events[0]));
+        assertEquals(80, events[1]);
+        assertEquals(HeadlessUserInterface.PLACE_TOKEN, HeadlessUserInterface.eventType(events[2]));
+        assertEquals(1, HeadlessUserInterface.eventPlayer(events[2]));
+        assertEquals(3, HeadlessUserInterface.eventSlot(events[2]));
+        assertEquals(-1, HeadlessUserInterface.eventSlot(events[4]));
+    }
+}
@@ -0,0 +1,55 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HistogramTest {
+
+    @Test
+    void buckets_AreContiguousAndCoverTheirValues() {
+        long previousHighest = -1;
+        for (int bucket = 0; bucket < 1920; ++bucket) {
+            long highest = Histogram.highestValue(bucket);
+            assertEquals(bucket, Histogram.bucket(previousHighest + 1));
+            assertEquals(bucket, Histogram.bucket(highest));
+            previousHighest = highest;
+            if (highest == Long.MAX_VALUE) break;
+        }
+        assertEquals(Long.MAX_VALUE, previousHighest);
+    }
+
+    @Test
+    void percentiles_AreWithinThePrecision() {
+        Histogram histogram = new Histogram("ns");
+        for (long value = 1; value <= 100_000; ++value)
+            histogram.record(value * 1000);
+        assertEquals(100_000, histogram.getCount());
+        assertEquals(100_000_000, histogram.getMax());
+        assertEquals(50_000_500, histogram.getMean(), 1);
+        assertEquals(50_000_000, histogram.getP50(), 50_000_000 / 32.0);
+        assertEquals(99_000_000, histogram.getP99(), 99_000_000 / 32.0);
+        assertEquals(99_900_000, histogram.getP999(), 99_900_000 / 32.0);
+    }
+
+    @Test
+    void register_ExposesTheMetricsThroughJmx() throws JMException {
+        GameMetrics metrics = new GameMetrics(2);
+        metrics.claimExamined(true);
+        metrics.verification.record(1234);
+        metrics.register();
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            String name = "bguspl.set:type=Game,game=" + metrics.getGame();
+            assertEquals(1L, server.getAttribute(new ObjectName(name), "LegalClaims"));
+            assertEquals(1234L, server.getAttribute(new ObjectName(name + ",histogram=Verification"), "Max"));
+        } finally {
+            metrics.unregister();
+        }
+    }
+}
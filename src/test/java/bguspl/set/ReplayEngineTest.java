@@ -0,0 +1,96 @@
+package bguspl.set;
+
+import bguspl.set.ex.Dealer;
+import bguspl.set.ex.Player;
+import bguspl.set.ex.Table;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReplayEngineTest {
+
+    private static final Logger logger = Logger.getLogger("ReplayEngineTest");
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Plays a game of computer players on a virtual clock, recording it to a journal.
+     *
+     * @return - the final scores of the players.
+     */
+    private int[] playRecorded(Path file) throws IOException {
+        logger.setLevel(Level.WARNING);
+        Properties properties = new Properties();
+        properties.setProperty("HumanPlayers", "0");
+        properties.setProperty("ComputerPlayers", "3");
+        properties.setProperty("ComputerStrategy", "oracle");
+        properties.setProperty("RandomSeed", "7");
+        Config config = new Config(logger, properties);
+        Clock clock = new VirtualClock();
+        Journal journal = Journal.open(file, config, clock);
+        Env env = new Env(logger, config, new HeadlessUserInterface(config, false), new UtilImpl(config), clock,
+                new GameLog(logger), journal);
+
+        Player[] players = new Player[config.players];
+        Table table = new Table(env);
+        Dealer dealer = new Dealer(env, table, players);
+        for (int i = 0; i < players.length; i++)
+            players[i] = new Player(env, dealer, table, i, false);
+        dealer.run();
+        journal.close();
+
+        int[] scores = new int[players.length];
+        for (int i = 0; i < players.length; i++)
+            scores[i] = players[i].getScore();
+        return scores;
+    }
+
+    @Test
+    void replay_ReproducesTheScoresAndWinners() throws IOException {
+        Path file = directory.resolve("game.journal");
+        int[] scores = playRecorded(file);
+
+        ReplayEngine engine = new ReplayEngine(file, logger);
+        assertEquals(7, engine.getConfig().randomSeed);
+        HeadlessUserInterface ui = new HeadlessUserInterface(engine.getConfig(), false);
+        assertArrayEquals(scores, engine.replay(ui, new UtilImpl(engine.getConfig()), 0));
+        for (int i = 0; i < scores.length; i++)
+            assertEquals(scores[i], ui.getScore(i));
+        assertTrue(ui.getWinners().length > 0);
+    }
+
+    @Test
+    void replay_RejectsATamperedScore() throws IOException {
+        Path file = directory.resolve("game.journal");
+        playRecorded(file);
+
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            ByteBuffer record = ByteBuffer.allocate(Journal.RECORD_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+            for (long at = Journal.HEADER_SIZE; at < channel.size(); at += Journal.RECORD_SIZE) {
+                record.clear();
+                channel.read(record, at);
+                if (record.get(8) == Journal.SCORE) {
+                    record.putInt(12, record.getInt(12) + 1).rewind();
+                    channel.write(record, at);
+                    break;
+                }
+            }
+        }
+
+        ReplayEngine engine = new ReplayEngine(file, logger);
+        HeadlessUserInterface ui = new HeadlessUserInterface(engine.getConfig(), false);
+        assertThrows(IllegalStateException.class, () -> engine.replay(ui, new UtilImpl(engine.getConfig()), 0));
+    }
+}
@@ -0,0 +1,123 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class UtilImplTest {
+
+    Config config;
+    UtilImpl util;
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "3");
+        properties.put("FeatureCount", "4");
+        config = new Config(Logger.getAnonymousLogger(), properties);
+        util = new UtilImpl(config);
+    }
+
+    private int[] allCards() {
+        int[] cards = new int[config.deckSize];
+        Arrays.setAll(cards, i -> i);
+        return cards;
+    }
+
+    private int bruteForceCount(int[] cards) {
+        int sets = 0;
+        for (int i = 0; i < cards.length; ++i)
+            for (int j = i + 1; j < cards.length; ++j)
+                for (int k = j + 1; k < cards.length; ++k)
+                    if (util.testSet(new int[]{cards[i], cards[j], cards[k]}))
+                        ++sets;
+        return sets;
+    }
+
+    @Test
+    void completeSet_FormsLegalSet() {
+        for (int a = 0; a < config.deckSize; ++a)
+            for (int b = 0; b < config.deckSize; ++b)
+                if (a != b) {
+                    int c = util.completeSet(a, b);
+                    assertTrue(c != a && c != b);
+                    assertTrue(util.testSet(new int[]{a, b, c}));
+                }
+    }
+
+    @Test
+    void testSet_PackedMatchesFeatures() {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "3");
+        properties.put("FeatureCount", "22"); // too wide to pack, uses the feature arrays
+        UtilImpl unpacked = new UtilImpl(new Config(Logger.getAnonymousLogger(), properties));
+        for (int a = 0; a < config.deckSize; ++a)
+            for (int b = 0; b < config.deckSize; b += 7)
+                for (int c = 0; c < config.deckSize; c += 5)
+                    assertEquals(unpacked.testSet(new int[]{a, b, c}), util.testSet(a, b, c));
+    }
+
+    @Test
+    void testSets_Batch() {
+        int[] triples = {0, 1, 2, 0, 1, 3, 0, 40, 80};
+        boolean[] out = new boolean[3];
+        assertEquals(2, util.testSets(triples, out));
+        assertTrue(out[0]);
+        assertFalse(out[1]);
+        assertTrue(out[2]);
+    }
+
+    @Test
+    void countSets_FullDeck() {
+        // every pair of cards is in exactly one set: 81 * 80 / 6
+        assertEquals(1080, util.countSets(allCards(), config.deckSize));
+    }
+
+    @Test
+    void countSets_MatchesBruteForce() {
+        int[] cards = {0, 5, 7, 13, 22, 31, 40, 44, 58, 61, 70, 80};
+        assertEquals(bruteForceCount(cards), util.countSets(cards, cards.length));
+    }
+
+    @Test
+    void findSets_ReportsLegalSetsUpToCount() {
+        int[] cards = allCards();
+        int[] sets = new int[3 * 10];
+        assertEquals(10, util.findSets(cards, cards.length, sets, 10));
+        for (int i = 0; i < 10; ++i)
+            assertTrue(util.testSet(Arrays.copyOfRange(sets, 3 * i, 3 * i + 3)));
+    }
+
+    @Test
+    void hasSet_NoSet() {
+        // no two of these cards can be completed by the third
+        int[] cards = {0, 1, 3, 4};
+        assertFalse(util.hasSet(cards, cards.length));
+        assertTrue(util.findSets(Arrays.asList(0, 1, 3, 4), Integer.MAX_VALUE).isEmpty());
+    }
+
+    @Test
+    void findSets_ListMatchesPrimitive() {
+        assertEquals(1080, util.findSets(Arrays.asList(Arrays.stream(allCards()).boxed().toArray(Integer[]::new)), Integer.MAX_VALUE).size());
+    }
+
+    @Test
+    void findSets_ListFindsEverySetOfFourCards() {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "4");
+        properties.put("FeatureCount", "2");
+        config = new Config(Logger.getAnonymousLogger(), properties);
+        util = new UtilImpl(config);
+        int[] cards = allCards();
+        int sets = util.countSets(cards, cards.length);
+        assertEquals(sets, util.findSets(Arrays.asList(Arrays.stream(cards).boxed().toArray(Integer[]::new)), Integer.MAX_VALUE).size());
+        assertEquals(1, util.findSets(Arrays.asList(Arrays.stream(cards).boxed().toArray(Integer[]::new)), 1).size());
+    }
+}
@@ -0,0 +1,67 @@
+package bguspl.set;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VirtualClockTest {
+
+    private final VirtualClock clock = new VirtualClock(1000);
+
+    @Test
+    void release_JumpsToEachTaskInOrder() {
+        List<Long> ran = new ArrayList<>();
+        clock.hold();
+        clock.schedule(() -> ran.add(clock.currentTimeMillis()), 300);
+        clock.schedule(() -> ran.add(clock.currentTimeMillis()), 100);
+        clock.schedule(() -> ran.add(clock.currentTimeMillis()), 500);
+        clock.release();
+        assertEquals(1500, clock.currentTimeMillis());
+        assertEquals(List.of(1100L, 1300L, 1500L), ran);
+    }
+
+    @Test
+    void hold_StopsTimeUntilReleased() {
+        List<Long> ran = new ArrayList<>();
+        clock.hold();
+        clock.hold();
+        clock.schedule(() -> ran.add(clock.currentTimeMillis()), 100);
+        clock.release();
+        assertEquals(1000, clock.currentTimeMillis());
+        assertTrue(ran.isEmpty());
+        clock.release();
+        assertEquals(List.of(1100L), ran);
+    }
+
+    @Test
+    void timeStandsStillWhileATaskHoldsTheClock() throws InterruptedException {
+        List<Long> ran = Collections.synchronizedList(new ArrayList<>());
+        CountDownLatch done = new CountDownLatch(1);
+        Thread worker = new Thread(() -> {
+            for (long spin = System.nanoTime() + 20_000_000; System.nanoTime() < spin; )
+                Thread.onSpinWait();
+            ran.add(clock.currentTimeMillis());
+            clock.release();
+        });
+        clock.hold();
+        clock.schedule(() -> {
+            clock.hold(); // the worker holds time back from 1200 until it finishes
+            worker.start();
+        }, 200);
+        clock.schedule(() -> {
+            ran.add(clock.currentTimeMillis());
+            done.countDown();
+        }, 300);
+        clock.release();
+
+        assertTrue(done.await(10, TimeUnit.SECONDS));
+        assertEquals(List.of(1200L, 1300L), ran);
+    }
+}
@@ -0,0 +1,155 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.HeadlessUserInterface;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.ManagementFactory;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * Checks that the hot paths of the game stay within their allocation budgets (in bytes per operation), so that many
+ * games can share a JVM without pressuring the garbage collector. Each operation is warmed up before it is measured,
+ * so the budgets hold for compiled code.
+ */
+class AllocationTest {
+
+    /**
+     * The allocation budgets, in bytes per operation.
+     */
+    private static final long TEST_SET_BUDGET = 0;
+    private static final long REPLACE_CARD_BUDGET = 0;
+    private static final long TOKEN_BUDGET = 0;
+    private static final long KEY_PRESS_BUDGET = 32; // the node of the key presses queue
+    private static final long CLAIM_BUDGET = 0;
+
+    /**
+     * The number of times each operation runs before it is measured, and while it is measured.
+     */
+    private static final int WARMUP = 50_000, OPERATIONS = 100_000;
+
+    private static com.sun.management.ThreadMXBean threads;
+
+    private Config config;
+    private UtilImpl util;
+    private Table table;
+    private Player player;
+    private Dealer dealer;
+
+    /**
+     * The cards that are not on the table, in the order they are placed (a ring).
+     */
+    private final int[] spare = new int[81 - 12];
+    private int nextSpare, nextSlot;
+
+    @BeforeAll
+    static void enableAllocationCounting() {
+        assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+        threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        assumeTrue(threads.isThreadAllocatedMemorySupported());
+        threads.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.put("HumanPlayers", "1");
+        properties.put("ComputerPlayers", "0");
+        properties.put("TableDelaySeconds", "0");
+        properties.put("PenaltyFreezeSeconds", "0");
+        properties.put("RandomSeed", "1");
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setLevel(Level.WARNING);
+        config = new Config(logger, properties);
+        util = new UtilImpl(config);
+        Env env = new Env(logger, config, new HeadlessUserInterface(config, false), util);
+
+        table = new Table(env);
+        Player[] players = new Player[1];
+        dealer = new Dealer(env, table, players);
+        player = players[0] = new Player(env, dealer, table, 0, true);
+        for (int slot = 0; slot < config.tableSize; ++slot)
+            table.placeCard(slot, slot);
+        for (int i = 0; i < spare.length; ++i)
+            spare[i] = config.tableSize + i;
+    }
+
+    /**
+     * Runs an operation many times and measures the bytes it allocates on average.
+     */
+    private static long bytesPerOperation(Runnable operation) {
+        for (int i = 0; i < WARMUP; ++i)
+            operation.run();
+        long thread = Thread.currentThread().getId();
+        long before = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < OPERATIONS; ++i)
+            operation.run();
+        return (threads.getThreadAllocatedBytes(thread) - before) / OPERATIONS;
+    }
+
+    private static void assertWithinBudget(long budget, Runnable operation) {
+        long bytes = bytesPerOperation(operation);
+        assertTrue(bytes <= budget, bytes + " bytes allocated per operation, the budget is " + budget);
+    }
+
+    @Test
+    void testSet() {
+        int[] cards = {0, 1, 2, 3}; // 0, 1, 2 is a set and 1, 2, 3 is not
+        int[] next = {0};
+        assertWithinBudget(TEST_SET_BUDGET, () -> {
+            int i = next[0]++ & 1;
+            util.testSet(cards[i], cards[i + 1], cards[i + 2]);
+        });
+    }
+
+    @Test
+    void replaceCard() {
+        assertWithinBudget(REPLACE_CARD_BUDGET, () -> {
+            int slot = nextSlot;
+            nextSlot = (nextSlot + 1) % config.tableSize;
+            int card = table.slotToCard[slot];
+            table.removeCard(slot);
+            table.placeCard(spare[nextSpare], slot);
+            spare[nextSpare] = card;
+            nextSpare = (nextSpare + 1) % spare.length;
+        });
+    }
+
+    @Test
+    void placeAndRemoveToken() {
+        assertWithinBudget(TOKEN_BUDGET, () -> {
+            table.placeToken(0, 5);
+            table.removeToken(0, 5);
+        });
+    }
+
+    @Test
+    void keyPress() {
+        assertWithinBudget(KEY_PRESS_BUDGET, () -> { // places a token, then removes it
+            player.keyPressed(4);
+            player.handleKeyPress((Integer) player.getInputPresses().poll());
+        });
+    }
+
+    @Test
+    void illegalClaim() {
+        table.placeToken(0, 0);
+        table.placeToken(0, 1);
+        table.placeToken(0, 3); // cards 0, 1 and 3 are not a set, so the claim is penalized and can be made again
+        assertWithinBudget(CLAIM_BUDGET, () -> {
+            dealer.HandleTest(0);
+            dealer.examineClaims();
+        });
+        assertEquals(WARMUP + OPERATIONS, dealer.getClaimCount());
+    }
+}
@@ -0,0 +1,107 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClaimQueueTest {
+
+    ClaimQueue claims;
+
+    @BeforeEach
+    void setUp() {
+        claims = new ClaimQueue(3);
+    }
+
+    @Test
+    void poll_InSubmissionOrder() {
+        claims.submit(2, claims.generation(2), 0, 0b111L);
+        claims.submit(0, claims.generation(0), 0, 0b1011_0000L);
+
+        assertEquals(2, claims.poll());
+        assertTrue(claims.isCurrent());
+        assertEquals(0, claims.slot(0));
+        assertEquals(1, claims.slot(1));
+        assertEquals(2, claims.slot(2));
+
+        assertEquals(0, claims.poll());
+        assertEquals(4, claims.slot(0));
+        assertEquals(5, claims.slot(1));
+        assertEquals(7, claims.slot(2));
+
+        assertEquals(-1, claims.poll());
+    }
+
+    @Test
+    void cancel_MakesClaimStale() {
+        int generation = claims.generation(1);
+        claims.submit(1, generation, 0, 0b111L);
+        claims.cancel(1);
+
+        assertEquals(1, claims.poll());
+        assertFalse(claims.isCurrent());
+    }
+
+    @Test
+    void submit_ReplacesPendingClaim() {
+        int generation = claims.generation(1);
+        claims.submit(1, generation, 0, 0b111L);
+        claims.cancel(1);
+        claims.submit(1, claims.generation(1), 0, 0b1110L);
+
+        assertEquals(1, claims.poll());
+        assertTrue(claims.isCurrent());
+        assertEquals(1, claims.slot(0));
+        assertEquals(-1, claims.poll());
+    }
+
+    @Test
+    void submit_ManyRoundsDoNotOverflow() {
+        for (int round = 0; round < 100; ++round) {
+            for (int player = 0; player < 3; ++player)
+                claims.submit(player, claims.generation(player), 0, 0b111L);
+            for (int player = 0; player < 3; ++player)
+                assertEquals(player, claims.poll());
+        }
+        assertEquals(-1, claims.poll());
+    }
+
+    @Test
+    void submit_AfterPollIsPolledWithItsOwnVersion() {
+        claims.submit(1, claims.generation(1), 5, 0b111L);
+        assertEquals(1, claims.poll());
+        assertEquals(5, claims.version());
+
+        claims.submit(1, claims.generation(1), 6, 0b1110L);
+        assertEquals(1, claims.poll());
+        assertTrue(claims.isCurrent());
+        assertEquals(6, claims.version());
+        assertEquals(1, claims.slot(0));
+        assertEquals(-1, claims.poll());
+    }
+
+    @Test
+    void submit_WhilePolling_NeverPairsSlotsWithAnotherVersion() throws InterruptedException {
+        // the version of each claim is its first slot, so a claim read with another claim's version is detected
+        int rounds = 200_000;
+        Thread player = new Thread(() -> {
+            for (int i = 0; i < rounds; ++i) {
+                int first = i % 60;
+                claims.submit(1, claims.generation(1), first, 0b111L << first);
+            }
+        });
+        player.start();
+        int current = 0;
+        while (player.isAlive() || claims.size() > 0) {
+            if (claims.poll() == 1 && claims.isCurrent()) {
+                assertEquals(claims.slot(0), claims.version());
+                ++current;
+            }
+        }
+        player.join();
+        assertTrue(current > 0);
+    }
+}
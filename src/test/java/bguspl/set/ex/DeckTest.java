@@ -0,0 +1,49 @@
+package bguspl.set.ex;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeckTest {
+
+    private static int[] drawAll(Deck deck) {
+        int[] cards = new int[deck.size()];
+        for (int i = 0; i < cards.length; ++i)
+            cards[i] = deck.draw();
+        return cards;
+    }
+
+    @Test
+    void draw_AllCardsOnce() {
+        Deck deck = new Deck(81, 42);
+        boolean[] seen = new boolean[81];
+        for (int card : drawAll(deck)) {
+            assertFalse(seen[card]);
+            seen[card] = true;
+        }
+        assertTrue(deck.isEmpty());
+    }
+
+    @Test
+    void draw_SameSeedSameOrder() {
+        Deck first = new Deck(81, 7), second = new Deck(81, 7);
+        for (int i = 0; i < 10; ++i) {
+            first.putBack(first.draw());
+            second.putBack(second.draw());
+        }
+        assertEquals(Arrays.toString(drawAll(first)), Arrays.toString(drawAll(second)));
+    }
+
+    @Test
+    void putBack_ReturnsCardToDeck() {
+        Deck deck = new Deck(3, 1);
+        int card = deck.draw();
+        assertEquals(2, deck.size());
+        deck.putBack(card);
+        assertEquals(3, deck.size());
+    }
+}
@@ -1,7 +1,11 @@
 package bguspl.set.ex;
 
+import bguspl.set.ActorPool;
 import bguspl.set.Config;
 import bguspl.set.Env;
+import bguspl.set.GameLog;
+import bguspl.set.GameMetrics;
+import bguspl.set.RealTimeClock;
 import bguspl.set.UserInterface;
 import bguspl.set.Util;
 import org.junit.jupiter.api.AfterEach;
@@ -16,6 +20,8 @@ import java.util.logging.Logger;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -23,6 +29,7 @@ import static org.mockito.Mockito.when;
 class PlayerTest {
 
     Player player;
+    Env env;
     @Mock
     Util util;
     @Mock
@@ -42,7 +49,7 @@ class PlayerTest {
     @BeforeEach
     void setUp() {
         // purposely do not find the configuration files (use defaults here).
-        Env env = new Env(logger, new Config(logger, ""), ui, util);
+        env = new Env(logger, new Config(logger, ""), ui, util);
         player = new Player(env, dealer, table, 0, false);
         assertInvariants();
     }
@@ -70,4 +77,50 @@ class PlayerTest {
         // check that ui.setScore was called with the player's id and the correct score
         verify(ui).setScore(eq(player.id), eq(expectedScore));
     }
-}
\ No newline at end of file
+
+    @Test
+    void penalty_FreezeIsShownAndExpires() {
+
+        player.penalty();
+
+        // the freeze is shown right away, in whole seconds
+        verify(ui).setFreeze(eq(player.id), eq(env.config.penaltyFreezeMillis));
+
+        // and cleared by the freeze timer when it is over
+        verify(ui, timeout(env.config.penaltyFreezeMillis + 1000)).setFreeze(eq(player.id), eq(0L));
+    }
+
+    @Test
+    void pressesQueuedBeforeAClaim_AreIgnored() {
+        // a closed pool gives the player no turns of its own, so the test runs them
+        ActorPool pool = new ActorPool("test-player", 1);
+        pool.close();
+        Env env = new Env(logger, this.env.config, ui, util, new RealTimeClock(), new GameLog(logger), null,
+                new GameMetrics(this.env.config.players), pool);
+        Integer[] slotToCard = new Integer[env.config.tableSize];
+        for (int slot = 0; slot < slotToCard.length; ++slot)
+            slotToCard[slot] = slot;
+        Table table = new Table(env, slotToCard, new Integer[env.config.deckSize]);
+        Player player = new Player(env, dealer, table, 0, true);
+        when(dealer.HandleTest(0)).thenReturn(true);
+        player.start();
+        player.keyPressed(0);
+        player.keyPressed(1);
+        player.receive();
+
+        // the 3rd token submits a claim, the token removed and placed after it are ignored until the verdict
+        player.keyPressed(2);
+        player.keyPressed(0);
+        player.keyPressed(3);
+        player.receive();
+        verify(dealer, times(1)).HandleTest(0);
+        assertEquals(0b111, table.getTokens(0));
+        assertTrue(player.getInputPresses().isEmpty());
+
+        // and a cancellation sent after the verdict does not take the point away
+        player.verdict(Player.LEGAL);
+        player.verdict(Player.CANCELED);
+        player.receive();
+        assertEquals(1, player.getScore());
+    }
+}
@@ -0,0 +1,78 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.HeadlessUserInterface;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Properties;
+import java.util.Random;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SetOracleStrategyTest {
+
+    Table table;
+    Env env;
+    int[] presses = new int[ComputerStrategy.MAX_PRESSES];
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.put("TableDelaySeconds", "0");
+        properties.put("ComputerErrorRate", "0");
+        properties.put("ComputerReactionDistribution", "fixed");
+        properties.put("ComputerReactionSeconds", "1.5");
+        Logger logger = Logger.getAnonymousLogger();
+        Config config = new Config(logger, properties);
+        env = new Env(logger, config, new HeadlessUserInterface(config, false), new UtilImpl(config));
+        table = new Table(env);
+    }
+
+    @Test
+    void nextPresses_MovesTokensToTheSet() {
+        table.placeCard(0, 0);
+        table.placeCard(1, 1);
+        table.placeCard(3, 2);
+        table.placeCard(2, 3); // the only set is in slots 0, 1 and 3
+        table.placeToken(0, 2);
+        table.placeToken(0, 1);
+        SetOracleStrategy strategy = new SetOracleStrategy(env, table, 0, new Random(1));
+
+        int count = strategy.nextPresses(presses);
+
+        assertArrayEquals(new int[]{2, 0, 3}, Arrays.copyOf(presses, count));
+    }
+
+    @Test
+    void nextPresses_NoSets() {
+        table.placeCard(0, 0);
+        table.placeCard(1, 1);
+        table.placeCard(3, 2);
+        SetOracleStrategy strategy = new SetOracleStrategy(env, table, 0, new Random(1));
+
+        assertEquals(0, strategy.nextPresses(presses));
+    }
+
+    @Test
+    void thinkMillis_Distributions() {
+        SetOracleStrategy strategy = new SetOracleStrategy(env, table, 0, new Random(1));
+        assertEquals(1500, strategy.thinkMillis());
+
+        Properties properties = new Properties();
+        properties.put("ComputerReactionSeconds", "1");
+        properties.put("ComputerReactionDistribution", "lognormal");
+        Config config = new Config(env.logger, properties);
+        strategy = new SetOracleStrategy(new Env(env.logger, config, null, null), table, 0, new Random(1));
+        long total = 0;
+        for (int i = 0; i < 10000; ++i)
+            total += strategy.thinkMillis();
+        assertTrue(Math.abs(total / 10000.0 - 1000) < 50, "mean reaction time " + total / 10000.0);
+    }
+}
@@ -0,0 +1,63 @@
+package bguspl.set.ex;
+
+import bguspl.set.Config;
+import bguspl.set.Env;
+import bguspl.set.UtilImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SetTrackerTest {
+
+    SetTracker tracker;
+    UtilImpl util;
+    Config config;
+
+    @BeforeEach
+    void setUp() {
+        Properties properties = new Properties();
+        properties.put("FeatureSize", "3");
+        properties.put("FeatureCount", "4");
+        Logger logger = Logger.getAnonymousLogger();
+        config = new Config(logger, properties);
+        util = new UtilImpl(config);
+        tracker = new SetTracker(new Env(logger, config, null, util));
+    }
+
+    @Test
+    void countSets_FullDeck() {
+        assertEquals(1080, tracker.countSets());
+        assertTrue(tracker.hasSets());
+    }
+
+    @Test
+    void remove_MatchesRecount() {
+        boolean[] removed = new boolean[config.deckSize];
+        for (int card = 0; card < config.deckSize; card += 2) {
+            tracker.remove(card);
+            removed[card] = true;
+        }
+        tracker.remove(0); // removing twice has no effect
+
+        int[] left = new int[config.deckSize];
+        int size = 0;
+        for (int card = 0; card < config.deckSize; ++card)
+            if (!removed[card])
+                left[size++] = card;
+        assertEquals(util.countSets(left, size), tracker.countSets());
+    }
+
+    @Test
+    void hasSets_AllRemoved() {
+        for (int card = 0; card < config.deckSize; ++card)
+            tracker.remove(card);
+        assertEquals(0, tracker.countSets());
+        assertFalse(tracker.hasSets());
+    }
+}
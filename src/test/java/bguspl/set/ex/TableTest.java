@@ -4,20 +4,27 @@ import bguspl.set.Config;
 import bguspl.set.Env;
 import bguspl.set.UserInterface;
 import bguspl.set.Util;
+import bguspl.set.UtilImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Properties;
 import java.util.logging.Logger;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 class TableTest {
 
     Table table;
     private Integer[] slotToCard;
     private Integer[] cardToSlot;
+    private Config config;
+    private MockLogger logger;
 
     @BeforeEach
     void setUp() {
@@ -30,8 +37,8 @@ class TableTest {
         properties.put("TableDelaySeconds", "0");
         properties.put("PlayerKeys1", "81,87,69,82");
         properties.put("PlayerKeys2", "85,73,79,80");
-        MockLogger logger = new MockLogger();
-        Config config = new Config(logger, properties);
+        logger = new MockLogger();
+        config = new Config(logger, properties);
         slotToCard = new Integer[config.tableSize];
         cardToSlot = new Integer[config.deckSize];
 
@@ -95,6 +102,65 @@ class TableTest {
         placeSomeCardsAndAssert();
     }
 
+    @Test
+    void countSets_TracksPlacedAndRemovedCards() {
+        Table table = new Table(new Env(logger, config, new MockUserInterface(), new UtilImpl(config)));
+        table.placeCard(0, 0);
+        table.placeCard(1, 1);
+        table.placeCard(4, 2);
+        assertEquals(0, table.countSets());
+
+        table.placeCard(2, 3); // 0, 1, 2 is a set
+        assertEquals(1, table.countSets());
+        int[] sets = new int[3];
+        assertEquals(1, table.getSets(sets));
+        Arrays.sort(sets);
+        assertArrayEquals(new int[]{0, 1, 3}, sets);
+
+        table.removeCard(1);
+        assertEquals(0, table.countSets());
+    }
+
+    @Test
+    void version_AdvancesOnCardChanges() {
+        long version = table.version();
+        table.placeCard(8, 2);
+        assertTrue(table.version() > version);
+        assertFalse(table.isUnchangedSince(2, version));
+        assertTrue(table.isUnchangedSince(1, version));
+
+        version = table.version();
+        table.removeCard(2);
+        assertFalse(table.isUnchangedSince(2, version));
+    }
+
+    @Test
+    void placeToken_And_RemoveToken() {
+        table.placeToken(0, 1);
+        table.placeToken(0, 3);
+        assertTrue(table.hasToken(0, 1));
+        assertEquals(2, table.countTokens(0));
+        assertEquals(0b1010, table.getTokens(0));
+
+        assertTrue(table.removeToken(0, 1));
+        assertFalse(table.removeToken(0, 1));
+        assertEquals(0b1000, table.getTokens(0));
+    }
+
+    @Test
+    void removeTokens_ReportsAffectedPlayers() {
+        table.placeToken(0, 2);
+        table.placeToken(1, 2);
+        table.placeToken(1, 0);
+
+        long[] players = new long[1];
+        assertEquals(2, table.removeTokens(2, players));
+        assertEquals(0b11, players[0]);
+        assertEquals(0, table.countTokens(0));
+        assertEquals(0b1, table.getTokens(1));
+        assertEquals(0, table.removeTokens(2, players));
+    }
+
     static class MockUserInterface implements UserInterface {
         @Override
         public void placeCard(int card, int slot) {}
@@ -136,10 +202,40 @@ class TableTest {
             return false;
         }
 
+        @Override
+        public boolean testSet(int a, int b, int c) {
+            return false;
+        }
+
+        @Override
+        public int testSets(int[] triples, boolean[] out) {
+            return 0;
+        }
+
         @Override
         public List<int[]> findSets(List<Integer> deck, int count) {
             return null;
         }
+
+        @Override
+        public int completeSet(int a, int b) {
+            return 0;
+        }
+
+        @Override
+        public int findSets(int[] cards, int size, int[] sets, int count) {
+            return 0;
+        }
+
+        @Override
+        public int countSets(int[] cards, int size) {
+            return 0;
+        }
+
+        @Override
+        public boolean hasSet(int[] cards, int size) {
+            return false;
+        }
     }
 
     static class MockLogger extends Logger {
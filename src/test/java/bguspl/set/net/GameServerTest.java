@@ -0,0 +1,104 @@
+package bguspl.set.net;
+
+import bguspl.set.Config;
+import bguspl.set.GameLog;
+import bguspl.set.ex.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class GameServerTest {
+
+    @Mock
+    Player first;
+    @Mock
+    Player second;
+
+    private GameServer server;
+    private InetSocketAddress address;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Logger logger = Logger.getAnonymousLogger();
+        logger.setLevel(Level.WARNING);
+        Properties properties = new Properties();
+        properties.setProperty("HumanPlayers", "2");
+        properties.setProperty("RemotePlayers", "2");
+        Config config = new Config(logger, properties);
+        server = new GameServer(config, new GameLog(logger));
+        server.start(new InetSocketAddress("localhost", 0), new Player[]{first, second});
+        address = new InetSocketAddress("localhost", server.getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        server.close();
+    }
+
+    /**
+     * Reads from the channel until the buffer holds at least the given number of bytes.
+     */
+    private static ByteBuffer receive(SocketChannel channel, ByteBuffer in, int bytes) throws IOException {
+        while (in.position() < bytes)
+            if (channel.read(in) < 0)
+                throw new IOException("closed after " + in.position() + " bytes");
+        return in;
+    }
+
+    @Test
+    void connection_ReceivesTheTableAndItsChanges() throws IOException {
+        server.placeCard(17, 3); // before the player connects
+        server.setScore(1, 2);
+        try (SocketChannel channel = SocketChannel.open(address)) {
+            ByteBuffer in = receive(channel, ByteBuffer.allocate(64), 7 + 4 + 7);
+            assertEquals(Protocol.WELCOME, in.get(0));
+            assertEquals(12, in.get(5) * in.get(6));
+            assertEquals(Protocol.PLACE_CARD, in.get(7));
+            assertEquals(3, in.get(8));
+            assertEquals(17, in.getShort(9));
+            assertEquals(Protocol.SCORE, in.get(11));
+            assertEquals(1, in.getShort(12));
+            assertEquals(2, in.getInt(14));
+
+            server.placeToken(0, 3);
+            receive(channel, in, 18 + 4);
+            assertEquals(Protocol.PLACE_TOKEN, in.get(18));
+            assertEquals(3, in.get(21));
+
+            ByteBuffer out = ByteBuffer.allocate(2);
+            Protocol.press(out, 5);
+            out.flip();
+            channel.write(out);
+            verify(first, timeout(5000)).keyPressed(5);
+        }
+    }
+
+    @Test
+    void loadClient_PlaysTheRemotePlayersAndIsRefusedTheRest() throws IOException {
+        LoadClient.Result result = new LoadClient(address, 3, 100, 1).run(500);
+        assertEquals(2, result.welcomed);
+        assertEquals(1, result.refused);
+        assertTrue(result.presses > 0);
+        verify(first, atLeastOnce()).keyPressed(anyInt());
+        verify(second, atLeastOnce()).keyPressed(anyInt());
+    }
+}